@@ -0,0 +1,184 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    /** Confidence threshold of ComputerVisionAbstract; generated candidates score above it */
+    static final float CONF_THRESHOLD = 0.25f;
+
+    static final int INPUT_SIZE = 640;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Parse "WIDTHxHEIGHT"
+     */
+    static int[] size(String size) {
+        int x = size.indexOf('x');
+        return new int[]{Integer.parseInt(size.substring(0, x)), Integer.parseInt(size.substring(x + 1))};
+    }
+
+    /**
+     * BufferedImage type constant from its name without the TYPE_ prefix
+     */
+    static int rasterType(String name) {
+        switch (name) {
+            case "3BYTE_BGR":
+                return BufferedImage.TYPE_3BYTE_BGR;
+            case "4BYTE_ABGR":
+                return BufferedImage.TYPE_4BYTE_ABGR;
+            case "INT_RGB":
+                return BufferedImage.TYPE_INT_RGB;
+            case "INT_ARGB":
+                return BufferedImage.TYPE_INT_ARGB;
+            case "INT_BGR":
+                return BufferedImage.TYPE_INT_BGR;
+            case "BYTE_GRAY":
+                return BufferedImage.TYPE_BYTE_GRAY;
+            default:
+                throw new IllegalArgumentException("Unknown raster type: " + name);
+        }
+    }
+
+    /**
+     * Gradient with noise, so resampling and JPEG encoding do real work
+     */
+    static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(7);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(32)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(32)) & 0xFF;
+                int b = ((x ^ y) + random.nextInt(32)) & 0xFF;
+                row[x] = 0xFF000000 | r << 16 | g << 8 | b;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    /**
+     * Direct buffer of tightly packed BGR rows, as a native video decoder hands them over
+     */
+    static ByteBuffer bgr(BufferedImage image) {
+        int width = image.getWidth();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * image.getHeight() * 3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                buffer.put((byte) rgb).put((byte) (rgb >> 8)).put((byte) (rgb >> 16));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Direct NV12 buffer with stride = width, BT.601 limited range
+     */
+    static ByteBuffer nv12(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height + width * ((height + 1) / 2));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                int r = (rgb >> 16) & 0xFF;
+                int g = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                buffer.put(y * width + x, (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16));
+                if ((x & 1) == 0 && (y & 1) == 0) {
+                    int uv = width * height + (y / 2) * width + x;
+                    buffer.put(uv, (byte) (((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128));
+                    buffer.put(uv + 1, (byte) (((112 * r - 94 * g - 18 * b + 128) >> 8) + 128));
+                }
+            }
+        }
+        return buffer;
+    }
+
+    static FloatBuffer directFloats(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Boxes of 8-96 px scattered over the input, with scores above CONF_THRESHOLD
+     */
+    static final class Candidates {
+        final float[] x1;
+        final float[] y1;
+        final float[] x2;
+        final float[] y2;
+        final float[] scores;
+        final int[] classIds;
+
+        Candidates(int count, int numClasses, long seed) {
+            x1 = new float[count];
+            y1 = new float[count];
+            x2 = new float[count];
+            y2 = new float[count];
+            scores = new float[count];
+            classIds = new int[count];
+            Random random = new Random(seed);
+            for (int i = 0; i < count; i++) {
+                float w = 8 + random.nextFloat() * 88;
+                float h = 8 + random.nextFloat() * 88;
+                x1[i] = random.nextFloat() * (INPUT_SIZE - w);
+                y1[i] = random.nextFloat() * (INPUT_SIZE - h);
+                x2[i] = x1[i] + w;
+                y2[i] = y1[i] + h;
+                scores[i] = CONF_THRESHOLD + 0.01f + random.nextFloat() * (0.99f - CONF_THRESHOLD);
+                classIds[i] = random.nextInt(numClasses);
+            }
+        }
+    }
+
+    /**
+     * YOLOv8 output [1, 4 + numClasses, anchors] in which the first count anchors are the
+     * given candidates and all other class scores stay below CONF_THRESHOLD
+     */
+    static FloatBuffer output(Candidates candidates, int numClasses, int anchors) {
+        int channels = 4 + numClasses;
+        FloatBuffer output = directFloats(channels * anchors);
+        Random random = new Random(11);
+        for (int c = 4; c < channels; c++) {
+            for (int a = 0; a < anchors; a++) {
+                output.put(c * anchors + a, random.nextFloat() * CONF_THRESHOLD * 0.9f);
+            }
+        }
+        for (int a = 0; a < anchors; a++) {
+            float x1;
+            float y1;
+            float x2;
+            float y2;
+            if (a < candidates.scores.length) {
+                x1 = candidates.x1[a];
+                y1 = candidates.y1[a];
+                x2 = candidates.x2[a];
+                y2 = candidates.y2[a];
+                output.put((4 + candidates.classIds[a]) * anchors + a, candidates.scores[a]);
+            } else {
+                x1 = random.nextFloat() * (INPUT_SIZE - 32);
+                y1 = random.nextFloat() * (INPUT_SIZE - 32);
+                x2 = x1 + 32;
+                y2 = y1 + 32;
+            }
+            output.put(a, (x1 + x2) / 2);
+            output.put(anchors + a, (y1 + y2) / 2);
+            output.put(2 * anchors + a, x2 - x1);
+            output.put(3 * anchors + a, y2 - y1);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,85 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.nio.FloatBuffer;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract;
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.InferenceContext;
+import com.devhub.io.vn.computer.vision.InputTensor;
+import com.devhub.io.vn.computer.vision.Letterbox;
+import com.devhub.io.vn.computer.vision.SessionPoolConfig;
+
+/**
+ * Detector over a generated model that exposes the protected stages to the benchmarks
+ */
+public class BenchmarkDetector extends ComputerVisionAbstract {
+
+    private final String[] classNames;
+
+    public BenchmarkDetector(String modelPath, int numClasses) {
+        this(modelPath, numClasses, new SessionPoolConfig());
+    }
+
+    public BenchmarkDetector(String modelPath, int numClasses, SessionPoolConfig sessionPoolConfig) {
+        super(modelPath, sessionPoolConfig);
+        this.classNames = new String[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            classNames[i] = "class" + i;
+        }
+    }
+
+    @Override
+    protected void configureModel() {
+        // Defaults of ComputerVisionAbstract
+    }
+
+    @Override
+    protected String[] getClassNames() {
+        // Called from the super constructor on some paths, before classNames is assigned
+        return classNames != null ? classNames : new String[0];
+    }
+
+    public InferenceContext context(Letterbox letterbox) {
+        return createContext(letterbox.getInputWidth(), letterbox.getInputHeight(), new Letterbox[]{letterbox});
+    }
+
+    public float[] toTensorData(BufferedImage image) {
+        return imageToTensorData(image, mean, std);
+    }
+
+    public void toTensorBuffer(BufferedImage image, FloatBuffer target) {
+        imageToTensorBuffer(image, mean, std, target, 0);
+    }
+
+    public BufferedImage resize(BufferedImage image, int width, int height) {
+        return resizeImage(image, width, height);
+    }
+
+    public BufferedImage letterbox(BufferedImage image, Letterbox letterbox) {
+        return letterboxImage(image, letterbox);
+    }
+
+    public void fill(BufferedImage image, Letterbox letterbox, FloatBuffer target) {
+        fillTensor(image, letterbox, mean, std, target, 0);
+    }
+
+    public InputTensor input(InferenceContext context) {
+        return acquireInput(context);
+    }
+
+    public void release(InputTensor input) {
+        releaseInput(input);
+    }
+
+    /**
+     * Letterbox and write the image in the model's input element type
+     */
+    public void fill(BufferedImage image, InferenceContext context, InputTensor target) {
+        preprocess(image, context, 0, target);
+    }
+
+    public void postprocess(FloatBuffer output, long[] shape, InferenceContext context, DetectionBatch result) {
+        processDetections(output, shape, 0, context, result);
+    }
+}
@@ -0,0 +1,139 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.SessionPoolConfig;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * Detector construction (model load to ready) with the optimized model cache:
+ * NONE has no cache directory, COLD empties it before every start, WARM reuses the graph
+ * and digest written by an earlier start, and WARM_REHASH reuses the graph but deletes the
+ * digest sidecars, so every start hashes the whole model as the cache originally did.
+ *
+ * modelMegabytes pads the generated model's doc_string so hashing sees a realistic file size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ColdStartBenchmark {
+
+    public enum Cache {
+        NONE,
+        COLD,
+        WARM,
+        WARM_REHASH
+    }
+
+    @Param({"NONE", "COLD", "WARM", "WARM_REHASH"})
+    public Cache cache;
+
+    @Param({"0", "32"})
+    public int modelMegabytes;
+
+    private File model;
+    private File cacheDir;
+    private SessionPoolConfig config;
+    private BenchmarkDetector detector;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        model = writeModel(80, modelMegabytes);
+        cacheDir = Files.createTempDirectory("optimized-models-").toFile();
+        config = new SessionPoolConfig();
+        if (cache != Cache.NONE) {
+            config.setOptimizedModelCacheDir(cacheDir.getPath());
+        }
+        // First start loads the ORT library and, for the warm cases, fills the cache
+        new BenchmarkDetector(model.getPath(), 80, config).close();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCache() {
+        if (cache == Cache.COLD) {
+            deleteFiles(cacheDir, "");
+        } else if (cache == Cache.WARM_REHASH) {
+            deleteFiles(cacheDir, ".sha256");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDetector() {
+        detector.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deleteFiles(cacheDir, "");
+        cacheDir.delete();
+        model.delete();
+    }
+
+    @Benchmark
+    public BenchmarkDetector start() {
+        detector = new BenchmarkDetector(model.getPath(), 80, config);
+        return detector;
+    }
+
+    private static void deleteFiles(File directory, String suffix) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(suffix)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * TinyYoloModel with megabytes of padding in ModelProto.doc_string (field 6)
+     */
+    private static File writeModel(int numClasses, int megabytes) throws IOException {
+        File file = File.createTempFile("cold-start-" + megabytes + "mb-", ".onnx");
+        file.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(TinyYoloModel.build(numClasses));
+            if (megabytes > 0) {
+                int length = megabytes << 20;
+                out.write(6 << 3 | 2);
+                for (long value = length; ; value >>>= 7) {
+                    if ((value & ~0x7FL) == 0) {
+                        out.write((int) value);
+                        break;
+                    }
+                    out.write((int) (value & 0x7F) | 0x80);
+                }
+                byte[] padding = new byte[1 << 20];
+                Arrays.fill(padding, (byte) ' ');
+                for (int i = 0; i < megabytes; i++) {
+                    out.write(padding);
+                }
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,93 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.PixelFormat;
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * Full detect calls against the generated tiny model: from a decoded image, from a JPEG
+ * file (header read, subsampled decode, preprocess, inference, postprocess), and from raw
+ * BGR and NV12 frames in direct buffers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"640x480", "1920x1080"})
+    public String imageSize;
+
+    @Param({"1", "80"})
+    public int classes;
+
+    private BenchmarkDetector detector;
+    private BufferedImage image;
+    private File imageFile;
+    private ByteBuffer bgrFrame;
+    private ByteBuffer nv12Frame;
+    private DetectionBatch result;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(classes);
+        detector = new BenchmarkDetector(model.getPath(), classes);
+        int[] size = BenchmarkData.size(imageSize);
+        image = BenchmarkData.image(size[0], size[1], BufferedImage.TYPE_3BYTE_BGR);
+        imageFile = File.createTempFile("benchmark-" + imageSize + "-", ".jpg");
+        imageFile.deleteOnExit();
+        ImageIO.write(image, "jpg", imageFile);
+        bgrFrame = BenchmarkData.bgr(image);
+        nv12Frame = BenchmarkData.nv12(image);
+        result = new DetectionBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+        imageFile.delete();
+    }
+
+    @Benchmark
+    public DetectionBatch detectImage() {
+        return detector.detect(image, result);
+    }
+
+    @Benchmark
+    public DetectionBatch detectFile() throws Exception {
+        return detector.detect(imageFile, result);
+    }
+
+    @Benchmark
+    public DetectionBatch detectBgrFrame() {
+        return detector.detect(bgrFrame, image.getWidth(), image.getHeight(), image.getWidth() * 3, PixelFormat.BGR, result);
+    }
+
+    @Benchmark
+    public DetectionBatch detectNv12Frame() {
+        return detector.detect(nv12Frame, image.getWidth(), image.getHeight(), image.getWidth(), PixelFormat.NV12, result);
+    }
+}
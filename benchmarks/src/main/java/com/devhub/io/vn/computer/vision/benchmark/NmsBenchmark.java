@@ -0,0 +1,65 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.NmsEngine;
+
+/**
+ * NmsEngine on its own (sort and suppression over primitive arrays) and the IoU kernel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NmsBenchmark {
+
+    @Param({"100", "1000", "5000", "20000"})
+    public int candidates;
+
+    @Param({"1", "80"})
+    public int classes;
+
+    @Param({"false", "true"})
+    public boolean classAware;
+
+    private BenchmarkData.Candidates boxes;
+    private NmsEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxes = new BenchmarkData.Candidates(candidates, classes, 5);
+        engine = new NmsEngine(0.45f, classAware);
+    }
+
+    @Benchmark
+    public int[] nms() {
+        return engine.run(boxes.x1, boxes.y1, boxes.x2, boxes.y2, boxes.scores, boxes.classIds, candidates);
+    }
+
+    /**
+     * IoU of every box with its successor; divide by candidates for the per-pair cost
+     */
+    @Benchmark
+    public float iou() {
+        float sum = 0;
+        for (int i = 1; i < candidates; i++) {
+            sum += NmsEngine.iou(boxes.x1, boxes.y1, boxes.x2, boxes.y2, i - 1, i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,78 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.InferenceContext;
+import com.devhub.io.vn.computer.vision.Letterbox;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * processDetections over a synthetic YOLOv8 output: anchor scan, top-K, NMS and result fill.
+ * At least 8400 anchors (a 640x640 input); the first candidates of them pass the threshold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostprocessBenchmark {
+
+    private static final int YOLO_ANCHORS = 8400;
+
+    @Param({"100", "1000", "5000", "20000"})
+    public int candidates;
+
+    @Param({"1", "80"})
+    public int classes;
+
+    @Param({"false", "true"})
+    public boolean classAwareNms;
+
+    private BenchmarkDetector detector;
+    private FloatBuffer output;
+    private long[] shape;
+    private InferenceContext context;
+    private DetectionBatch result;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(classes);
+        detector = new BenchmarkDetector(model.getPath(), classes);
+        detector.setClassAwareNms(classAwareNms);
+
+        int anchors = Math.max(YOLO_ANCHORS, candidates);
+        output = BenchmarkData.output(new BenchmarkData.Candidates(candidates, classes, 3), classes, anchors);
+        shape = new long[]{1, 4 + classes, anchors};
+        context = detector.context(Letterbox.fit(1280, 720, BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE));
+        result = new DetectionBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+    }
+
+    @Benchmark
+    public DetectionBatch processDetections() {
+        detector.postprocess(output, shape, context, result);
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.InferenceContext;
+import com.devhub.io.vn.computer.vision.InputTensor;
+import com.devhub.io.vn.computer.vision.Letterbox;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * Latency of the FLOAT32, UINT8 and FLOAT16 variants of the generated model: full detect
+ * calls and preprocessing alone. Setup also compares the detections of each variant with
+ * FLOAT32 on the same image and prints recall, mean IoU and confidence error, so a
+ * precision's speedup can be read next to what it costs in accuracy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrecisionBenchmark {
+
+    /** IoU at which a detection counts as the same as a FLOAT32 detection */
+    private static final float MATCH_IOU = 0.5f;
+
+    @Param({"FLOAT32", "UINT8", "FLOAT16"})
+    public TinyYoloModel.Precision precision;
+
+    @Param({"640x480", "1920x1080"})
+    public String imageSize;
+
+    @Param({"80"})
+    public int classes;
+
+    private BenchmarkDetector detector;
+    private BufferedImage image;
+    private InferenceContext context;
+    private InputTensor input;
+    private DetectionBatch result;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(classes, precision);
+        detector = new BenchmarkDetector(model.getPath(), classes);
+        int[] size = BenchmarkData.size(imageSize);
+        image = BenchmarkData.image(size[0], size[1], BufferedImage.TYPE_3BYTE_BGR);
+        context = detector.context(Letterbox.fit(size[0], size[1], BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE));
+        input = detector.input(context);
+        result = new DetectionBatch();
+
+        BenchmarkDetector reference = new BenchmarkDetector(TinyYoloModel.write(classes).getPath(), classes);
+        try {
+            System.out.println(compare(reference.detect(image, new DetectionBatch()), detector.detect(image, new DetectionBatch())));
+        } finally {
+            reference.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.release(input);
+        detector.close();
+    }
+
+    @Benchmark
+    public DetectionBatch detect() {
+        return detector.detect(image, result);
+    }
+
+    @Benchmark
+    public InputTensor preprocess() {
+        detector.fill(image, context, input);
+        return input;
+    }
+
+    /**
+     * Greedy same-class matching of candidate detections to the FLOAT32 ones, best IoU first
+     */
+    private String compare(DetectionBatch expected, DetectionBatch actual) {
+        boolean[] used = new boolean[actual.size()];
+        int matched = 0;
+        double iouSum = 0;
+        double confidenceError = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            int best = -1;
+            float bestIou = MATCH_IOU;
+            for (int j = 0; j < actual.size(); j++) {
+                if (used[j] || actual.getClassId(j) != expected.getClassId(i)) {
+                    continue;
+                }
+                float iou = iou(expected, i, actual, j);
+                if (iou >= bestIou) {
+                    best = j;
+                    bestIou = iou;
+                }
+            }
+            if (best >= 0) {
+                used[best] = true;
+                matched++;
+                iouSum += bestIou;
+                confidenceError += Math.abs(actual.getConfidence(best) - expected.getConfidence(i));
+            }
+        }
+        return String.format("%s vs FLOAT32 at %s: %d/%d detections, recall=%.3f, meanIoU=%.4f, meanConfidenceError=%.5f",
+                precision, imageSize, actual.size(), expected.size(),
+                expected.isEmpty() ? 1.0 : (double) matched / expected.size(),
+                matched == 0 ? 0.0 : iouSum / matched, matched == 0 ? 0.0 : confidenceError / matched);
+    }
+
+    private static float iou(DetectionBatch a, int i, DetectionBatch b, int j) {
+        float w = Math.min(a.getX2(i), b.getX2(j)) - Math.max(a.getX1(i), b.getX1(j));
+        float h = Math.min(a.getY2(i), b.getY2(j)) - Math.max(a.getY1(i), b.getY1(j));
+        if (w <= 0 || h <= 0) {
+            return 0;
+        }
+        float intersection = w * h;
+        float areaA = (a.getX2(i) - a.getX1(i)) * (a.getY2(i) - a.getY1(i));
+        float areaB = (b.getX2(j) - b.getX1(j)) * (b.getY2(j) - b.getY1(j));
+        return intersection / (areaA + areaB - intersection);
+    }
+}
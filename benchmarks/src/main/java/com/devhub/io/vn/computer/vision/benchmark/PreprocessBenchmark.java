@@ -0,0 +1,100 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.Letterbox;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * Image to input tensor: the reference imageToTensorData, resizeImage / letterboxImage
+ * followed by imageToTensorBuffer, and the fused fillTensor kernel used by detect
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreprocessBenchmark {
+
+    @Param({"640x480", "1280x720", "1920x1080", "3840x2160"})
+    public String imageSize;
+
+    @Param({"3BYTE_BGR", "INT_RGB", "INT_ARGB", "BYTE_GRAY"})
+    public String rasterType;
+
+    private BenchmarkDetector detector;
+    private BufferedImage image;
+    private BufferedImage resized;
+    private Letterbox letterbox;
+    private FloatBuffer tensor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(80);
+        detector = new BenchmarkDetector(model.getPath(), 80);
+        int[] size = BenchmarkData.size(imageSize);
+        image = BenchmarkData.image(size[0], size[1], BenchmarkData.rasterType(rasterType));
+        letterbox = Letterbox.fit(size[0], size[1], BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE);
+        resized = detector.resize(image, BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE);
+        tensor = BenchmarkData.directFloats(3 * BenchmarkData.INPUT_SIZE * BenchmarkData.INPUT_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+    }
+
+    /**
+     * Per-pixel getRGB conversion of an input-sized image (the pre-fused path)
+     */
+    @Benchmark
+    public float[] imageToTensorData() {
+        return detector.toTensorData(resized);
+    }
+
+    @Benchmark
+    public BufferedImage resizeImage() {
+        return detector.resize(image, BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE);
+    }
+
+    @Benchmark
+    public BufferedImage letterboxImage() {
+        return detector.letterbox(image, letterbox);
+    }
+
+    /**
+     * Raster-array conversion of an input-sized image into a direct buffer
+     */
+    @Benchmark
+    public FloatBuffer imageToTensorBuffer() {
+        detector.toTensorBuffer(resized, tensor);
+        return tensor;
+    }
+
+    /**
+     * Letterbox, resize and normalize in one pass, as detect does by default
+     */
+    @Benchmark
+    public FloatBuffer fillTensor() {
+        detector.fill(image, letterbox, tensor);
+        return tensor;
+    }
+}
@@ -0,0 +1,117 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.ClassFilter;
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.InferenceContext;
+import com.devhub.io.vn.computer.vision.Letterbox;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * Output decoding with few candidates, so the class score scan dominates: processDetections
+ * with the scalar column decoder, with the Vector API decoder (needs JDK 17+, the fork adds
+ * jdk.incubator.vector), with a two-class filter, and the anchor-major scan it replaced as a baseline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreDecoderBenchmark {
+
+    @Param({"8400", "33600"})
+    public int anchors;
+
+    @Param({"1", "80"})
+    public int classes;
+
+    private BenchmarkDetector detector;
+    private FloatBuffer output;
+    private long[] shape;
+    private InferenceContext context;
+    private InferenceContext filteredContext;
+    private DetectionBatch result;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(classes);
+        detector = new BenchmarkDetector(model.getPath(), classes);
+        output = BenchmarkData.output(new BenchmarkData.Candidates(100, classes, 3), classes, anchors);
+        shape = new long[]{1, 4 + classes, anchors};
+        Letterbox letterbox = Letterbox.fit(1280, 720, BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE);
+        context = detector.context(letterbox);
+        ClassFilter filter = new ClassFilter();
+        filter.allow(0);
+        filter.allow(classes - 1, 0.5f);
+        detector.setClassFilter(filter);
+        filteredContext = detector.context(letterbox);
+        detector.setClassFilter(null);
+        result = new DetectionBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+    }
+
+    @Benchmark
+    public DetectionBatch scalar() {
+        detector.postprocess(output, shape, context, result);
+        return result;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public DetectionBatch vector() {
+        detector.postprocess(output, shape, context, result);
+        return result;
+    }
+
+    @Benchmark
+    public DetectionBatch filtered() {
+        detector.postprocess(output, shape, filteredContext, result);
+        return result;
+    }
+
+    /**
+     * The previous decoder loop alone: all class rows strided per anchor, boxes read for passing anchors
+     */
+    @Benchmark
+    public float anchorMajorScan() {
+        float sum = 0;
+        for (int i = 0; i < anchors; i++) {
+            int bestClass = 0;
+            float maxClassConf = output.get(4 * anchors + i);
+            for (int c = 1; c < classes; c++) {
+                float classConf = output.get((4 + c) * anchors + i);
+                if (classConf > maxClassConf) {
+                    maxClassConf = classConf;
+                    bestClass = c;
+                }
+            }
+            if (maxClassConf > BenchmarkData.CONF_THRESHOLD) {
+                sum += output.get(i) + output.get(anchors + i) + output.get(2 * anchors + i)
+                        + output.get(3 * anchors + i) + bestClass;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,91 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.SessionPoolConfig;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+import ai.onnxruntime.OrtSession.SessionOptions.ExecutionMode;
+
+/**
+ * detect throughput of 4 concurrent callers on one detector, swept over SessionPoolConfig:
+ * pool size, intra-op and inter-op threads, execution mode and checkout policy.
+ * FAIL_FAST is left out: with more callers than sessions it throws instead of measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SessionPoolBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int poolSize;
+
+    @Param({"1", "4"})
+    public int intraOpThreads;
+
+    @Param({"1", "2"})
+    public int interOpThreads;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public String executionMode;
+
+    @Param({"SHARED", "BLOCK"})
+    public String checkoutPolicy;
+
+    private BenchmarkDetector detector;
+    private BufferedImage image;
+
+    /**
+     * Per-thread result, as concurrent callers of detect must each have their own
+     */
+    @State(Scope.Thread)
+    public static class Result {
+        DetectionBatch batch = new DetectionBatch();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SessionPoolConfig config = new SessionPoolConfig();
+        config.setPoolSize(poolSize);
+        config.setIntraOpThreads(intraOpThreads);
+        config.setInterOpThreads(interOpThreads);
+        config.setExecutionMode(ExecutionMode.valueOf(executionMode));
+        config.setCheckoutPolicy(SessionPoolConfig.CheckoutPolicy.valueOf(checkoutPolicy));
+
+        File model = TinyYoloModel.write(80);
+        detector = new BenchmarkDetector(model.getPath(), 80, config);
+        image = BenchmarkData.image(640, 480, BufferedImage.TYPE_3BYTE_BGR);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+    }
+
+    @Benchmark
+    public DetectionBatch detect(Result result) {
+        return detector.detect(image, result.batch);
+    }
+}
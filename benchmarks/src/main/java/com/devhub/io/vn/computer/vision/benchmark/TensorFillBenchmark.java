@@ -0,0 +1,94 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.TensorBufferPool;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+
+/**
+ * Input tensor creation before and after pooling: a per-pixel getRGB float[] wrapped in a
+ * heap FloatBuffer (which OnnxTensor copies into native memory), against a raster-array fill
+ * of a pooled direct buffer that OnnxTensor wraps without copying
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TensorFillBenchmark {
+
+    @Param({"3BYTE_BGR", "INT_RGB", "INT_ARGB", "BYTE_GRAY"})
+    public String rasterType;
+
+    private static final long[] SHAPE = {1, 3, BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE};
+    private static final int ELEMENTS = 3 * BenchmarkData.INPUT_SIZE * BenchmarkData.INPUT_SIZE;
+
+    private BenchmarkDetector detector;
+    private OrtEnvironment env;
+    private TensorBufferPool pool;
+    private BufferedImage resized;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(80);
+        detector = new BenchmarkDetector(model.getPath(), 80);
+        env = OrtEnvironment.getEnvironment();
+        pool = new TensorBufferPool(2);
+        BufferedImage image = BenchmarkData.image(640, 480, BenchmarkData.rasterType(rasterType));
+        resized = detector.resize(image, BenchmarkData.INPUT_SIZE, BenchmarkData.INPUT_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+    }
+
+    /**
+     * The original detect path: imageToTensorData, then FloatBuffer.wrap
+     */
+    @Benchmark
+    public long perPixelHeapTensor() throws OrtException {
+        float[] data = detector.toTensorData(resized);
+        try (OnnxTensor tensor = OnnxTensor.createTensor(env, FloatBuffer.wrap(data), SHAPE)) {
+            return tensor.getInfo().getNumElements();
+        }
+    }
+
+    /**
+     * The pooled path: imageToTensorBuffer into a borrowed direct buffer
+     */
+    @Benchmark
+    public long pooledRasterTensor() throws OrtException {
+        FloatBuffer buffer = pool.acquire(ELEMENTS);
+        try {
+            detector.toTensorBuffer(resized, buffer);
+            try (OnnxTensor tensor = OnnxTensor.createTensor(env, buffer, SHAPE)) {
+                return tensor.getInfo().getNumElements();
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+}
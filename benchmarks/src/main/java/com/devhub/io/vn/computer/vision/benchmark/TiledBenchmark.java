@@ -0,0 +1,83 @@
+package com.devhub.io.vn.computer.vision.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.devhub.io.vn.computer.vision.DetectionBatch;
+import com.devhub.io.vn.computer.vision.SessionPoolConfig;
+import com.devhub.io.vn.computer.vision.TilingConfig;
+import com.devhub.io.vn.computer.vision.TinyYoloModel;
+
+/**
+ * Tiled detection throughput (images per second) on large images, by tile batch size and
+ * pooled sessions; detectScaled is the single-pass baseline at the same image size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TiledBenchmark {
+
+    @Param({"3000x2000", "8000x6000"})
+    public String imageSize;
+
+    @Param({"1", "4"})
+    public int tileBatchSize;
+
+    @Param({"1", "2"})
+    public int sessions;
+
+    @Param({"true"})
+    public boolean fullImagePass;
+
+    private BenchmarkDetector detector;
+    private BufferedImage image;
+    private TilingConfig tiling;
+    private DetectionBatch result;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File model = TinyYoloModel.write(80);
+        SessionPoolConfig poolConfig = new SessionPoolConfig();
+        poolConfig.setPoolSize(sessions);
+        detector = new BenchmarkDetector(model.getPath(), 80, poolConfig);
+        int[] size = BenchmarkData.size(imageSize);
+        image = BenchmarkData.image(size[0], size[1], BufferedImage.TYPE_3BYTE_BGR);
+        tiling = new TilingConfig();
+        tiling.setBatchSize(tileBatchSize);
+        tiling.setFullImagePass(fullImagePass);
+        result = new DetectionBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detector.close();
+    }
+
+    @Benchmark
+    public DetectionBatch detectTiled() {
+        return detector.detectTiled(image, tiling, result);
+    }
+
+    @Benchmark
+    public DetectionBatch detectScaled() {
+        return detector.detect(image, result);
+    }
+}
@@ -0,0 +1,83 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Worker count, queue size and overload behaviour of the executor behind detectAsync.
+ *
+ * Requests beyond the queue capacity are handled by the rejection policy instead of
+ * piling up, so an overloaded detector sheds or slows callers rather than growing the heap.
+ */
+public class AsyncConfig {
+
+    /**
+     * What detectAsync does when every worker is busy and the queue is full
+     */
+    public enum RejectionPolicy {
+        /** Return a future failed with RejectedExecutionException */
+        FAIL_FAST,
+        /** Run the detection on the calling thread, which slows the producer down */
+        CALLER_RUNS,
+        /** Wait up to blockTimeoutMs for queue space (0 = wait forever), then fail as FAIL_FAST */
+        BLOCK
+    }
+
+    private int threads = 0;
+    private int queueCapacity = 32;
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.FAIL_FAST;
+    private long blockTimeoutMs = 0;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Inference workers; 0 uses one per pooled session
+     */
+    public void setThreads(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads must be >= 0: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Requests waiting for a worker
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be >= 1: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+        if (rejectionPolicy == null) {
+            throw new IllegalArgumentException("rejectionPolicy must not be null");
+        }
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public long getBlockTimeoutMs() {
+        return blockTimeoutMs;
+    }
+
+    public void setBlockTimeoutMs(long blockTimeoutMs) {
+        if (blockTimeoutMs < 0) {
+            throw new IllegalArgumentException("blockTimeoutMs must be >= 0: " + blockTimeoutMs);
+        }
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncConfig[threads=%d, queue=%d, rejection=%s, blockTimeout=%dms]",
+                threads, queueCapacity, rejectionPolicy, blockTimeoutMs);
+    }
+}
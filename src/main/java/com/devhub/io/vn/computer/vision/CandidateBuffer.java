@@ -0,0 +1,130 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive storage for decoded boxes above the confidence threshold.
+ * Boxes stay in anchor order so ties are resolved the same way as a stable sort.
+ * Also holds the top-k and NMS work arrays, so a reused buffer allocates nothing per frame.
+ */
+final class CandidateBuffer {
+
+    float[] x1;
+    float[] y1;
+    float[] x2;
+    float[] y2;
+    float[] scores;
+    int[] classIds;
+    int size;
+
+    final NmsEngine.Scratch nms = new NmsEngine.Scratch();
+    private long[] heap = new long[0];
+    private int[] kept = new int[0];
+
+    CandidateBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x1 = new float[capacity];
+        y1 = new float[capacity];
+        x2 = new float[capacity];
+        y2 = new float[capacity];
+        scores = new float[capacity];
+        classIds = new int[capacity];
+    }
+
+    void add(float bx1, float by1, float bx2, float by2, float score, int classId) {
+        if (size == scores.length) {
+            int capacity = size * 2;
+            x1 = Arrays.copyOf(x1, capacity);
+            y1 = Arrays.copyOf(y1, capacity);
+            x2 = Arrays.copyOf(x2, capacity);
+            y2 = Arrays.copyOf(y2, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            classIds = Arrays.copyOf(classIds, capacity);
+        }
+        x1[size] = bx1;
+        y1[size] = by1;
+        x2[size] = bx2;
+        y2[size] = by2;
+        scores[size] = score;
+        classIds[size] = classId;
+        size++;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Keep only the k highest-scoring boxes (earlier index wins ties), preserving anchor order.
+     * Uses a bounded max-heap of sort keys, O(n log k).
+     */
+    void retainTopK(int k) {
+        if (k <= 0 || size <= k) {
+            return;
+        }
+        if (heap.length < k) {
+            heap = new long[k];
+            kept = new int[k];
+        }
+        // Smaller key = higher score, then lower index; the heap root is the worst kept key
+        long[] heap = this.heap;
+        for (int i = 0; i < k; i++) {
+            heap[i] = NmsEngine.sortKey(scores[i], i);
+            siftUp(heap, i);
+        }
+        for (int i = k; i < size; i++) {
+            long key = NmsEngine.sortKey(scores[i], i);
+            if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, k);
+            }
+        }
+
+        int[] kept = this.kept;
+        for (int i = 0; i < k; i++) {
+            kept[i] = (int) heap[i];
+        }
+        Arrays.sort(kept, 0, k);
+        for (int i = 0; i < k; i++) {
+            int from = kept[i];
+            x1[i] = x1[from];
+            y1[i] = y1[from];
+            x2[i] = x2[from];
+            y2[i] = y2[from];
+            scores[i] = scores[from];
+            classIds[i] = classIds[from];
+        }
+        size = k;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long key = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+}
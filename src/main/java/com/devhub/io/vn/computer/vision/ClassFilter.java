@@ -0,0 +1,85 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Classes to detect, optionally each with its own confidence threshold.
+ *
+ * Applied during output decoding: only the score rows of allowed classes are read, and an
+ * anchor's class is the highest-scoring allowed class above its threshold, so other classes
+ * never become candidates or reach NMS. The detector copies the filter when it is set.
+ *
+ * This is not the same as filtering the unfiltered detections by class. Disallowed classes
+ * are never scored, so an anchor whose best class overall is disallowed still yields a box
+ * for its best allowed class when that clears the threshold, and NMS only compares boxes of
+ * allowed classes. Expect more boxes of the allowed classes than a post-hoc filter keeps,
+ * e.g. a "dog" box where the unfiltered detector reports "cat" over "dog".
+ */
+public class ClassFilter {
+
+    // Class id to threshold; NaN uses the detector's confThreshold
+    private final TreeMap<Integer, Float> thresholds = new TreeMap<>();
+
+    /**
+     * Detect classId at the detector's confidence threshold
+     */
+    public void allow(int classId) {
+        allow(classId, Float.NaN);
+    }
+
+    /**
+     * Detect classId when its score is above confThreshold
+     */
+    public void allow(int classId, float confThreshold) {
+        if (classId < 0) {
+            throw new IllegalArgumentException("classId must be >= 0: " + classId);
+        }
+        if (!Float.isNaN(confThreshold) && (confThreshold < 0 || confThreshold > 1)) {
+            throw new IllegalArgumentException("confThreshold must be in [0, 1]: " + confThreshold);
+        }
+        thresholds.put(classId, confThreshold);
+    }
+
+    public boolean isEmpty() {
+        return thresholds.isEmpty();
+    }
+
+    /**
+     * Allowed class ids in ascending order
+     */
+    public int[] getClassIds() {
+        int[] classIds = new int[thresholds.size()];
+        int i = 0;
+        for (Integer classId : thresholds.keySet()) {
+            classIds[i++] = classId;
+        }
+        return classIds;
+    }
+
+    /**
+     * Threshold of an allowed class; NaN when it uses the detector's threshold
+     */
+    public float getThreshold(int classId) {
+        Float threshold = thresholds.get(classId);
+        if (threshold == null) {
+            throw new IllegalArgumentException("Class not allowed: " + classId);
+        }
+        return threshold;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ClassFilter[");
+        for (Map.Entry<Integer, Float> entry : thresholds.entrySet()) {
+            if (sb.length() > "ClassFilter[".length()) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey());
+            if (!Float.isNaN(entry.getValue())) {
+                sb.append('>').append(entry.getValue());
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
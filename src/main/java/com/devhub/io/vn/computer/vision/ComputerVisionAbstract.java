@@ -2,16 +2,40 @@ package com.devhub.io.vn.computer.vision;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
+import ai.onnxruntime.OnnxJavaType;
 import ai.onnxruntime.OnnxTensor;
 import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
 import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+import ai.onnxruntime.platform.Fp16Conversions;
 import security.license.LicenseManager;
 import security.license.RequiresLicense;
 import security.license.RequiresLicense.LicenseLevel;
@@ -19,6 +43,9 @@ import security.license.RequiresLicense.LicenseLevel;
 /**
  * Abstract base class for YOLOv8 ONNX detection
  * Supports different models and automatic image dimension handling
+ * 
+ * Instances are safe for concurrent detect calls: per-call state is kept in an
+ * immutable InferenceContext and the shared OrtSession supports concurrent run().
  */
 
 public abstract class ComputerVisionAbstract {
@@ -29,16 +56,98 @@ public abstract class ComputerVisionAbstract {
     protected final int channels = 3;
     protected float confThreshold = 0.25f;
     protected float nmsThreshold = 0.45f;
+    protected boolean classAwareNms = false;
+    protected int maxCandidates = 30000;
+    protected int maxDetections = 300;
+    
+    // Allowed classes, ascending, with their thresholds (NaN = confThreshold); null decodes every class
+    private int[] classFilter;
+    private float[] classThresholds;
     
     // Normalization parameters
     protected float[] mean = {0.0f, 0.0f, 0.0f};
     protected float[] std = {1.0f, 1.0f, 1.0f};
     
+    // UINT8 models take raw 0-255 pixels and scale inside the graph
+    private static final float[] RAW_MEAN = {0.0f, 0.0f, 0.0f};
+    private static final float[] RAW_STD = {1.0f / 255.0f, 1.0f / 255.0f, 1.0f / 255.0f};
+    
+    // Tensor element types declared by the model: FLOAT, FLOAT16 or UINT8 input, FLOAT or FLOAT16 output
+    protected OnnxJavaType inputType = OnnxJavaType.FLOAT;
+    protected OnnxJavaType outputType = OnnxJavaType.FLOAT;
+    
     // ONNX Runtime objects
     protected OrtEnvironment env;
     protected OrtSession session;
+    protected SessionPool sessionPool;
+    protected SessionPoolConfig sessionPoolConfig = new SessionPoolConfig();
+    protected ModelRegistry modelRegistry = ModelRegistry.getDefault();
+    protected ModelRegistry.Handle modelHandle;
     protected String modelPath;
     
+    // Reusable direct buffers for input tensors
+    protected final TensorBufferPool tensorBufferPool = new TensorBufferPool(4);
+    
+    // Output shape seen for each input shape; lets later runs write into a pinned direct buffer
+    private final Map<String, long[]> outputShapes = new ConcurrentHashMap<>();
+    
+    // Preprocessing: fused resize + normalize straight into the tensor buffer
+    protected volatile boolean fusedPreprocessing = true;
+    protected volatile Interpolation interpolation = Interpolation.BILINEAR;
+    
+    // Decode files at reduced resolution via ImageReader subsampling
+    protected volatile boolean subsampledDecoding = true;
+    
+    // Canonical input sizes; null keeps the per-aspect-ratio shape from optimalDimensions
+    protected volatile ShapeBuckets shapeBuckets;
+    
+    // Tiled detection of images larger than a tile; null disables
+    protected volatile TilingConfig tiling;
+    
+    // Results of repeated images keyed by content hash; null disables
+    protected volatile ResultCache resultCache;
+    
+    // Size and modification time of the model file when loaded, part of every cache key
+    private long modelVersion;
+    
+    // Startup figures: model load (sessions created or shared), warm-up, and the first real inference
+    private volatile long modelLoadTimeMs;
+    private volatile long warmUpTimeMs;
+    private volatile long startupTimeMs;
+    private final AtomicLong firstInferenceNanos = new AtomicLong(-1);
+    
+    // Executor behind detectAsync, created on first use; guarded by asyncLock
+    private AsyncConfig asyncConfig = new AsyncConfig();
+    private InferenceExecutor inferenceExecutor;
+    private boolean closed;
+    private final Object asyncLock = new Object();
+    
+    // Per-image callbacks; stage metrics are only collected while one is registered
+    private final List<DetectionListener> detectionListeners = new CopyOnWriteArrayList<>();
+    
+    // Guards thresholds and normalization while a context snapshot is taken
+    private final Object configLock = new Object();
+    
+    /**
+     * Sampling used by the fused preprocessing kernel
+     */
+    public enum Interpolation {
+        NEAREST,
+        BILINEAR
+    }
+    
+    /**
+     * Layout of a raw frame passed to detect(ByteBuffer, ...)
+     */
+    public enum PixelFormat {
+        /** Packed 3 bytes per pixel, R G B */
+        RGB,
+        /** Packed 3 bytes per pixel, B G R */
+        BGR,
+        /** 8-bit luma plane followed by an interleaved U V plane at half resolution, same stride */
+        NV12
+    }
+    
     /**
      * Detection result class
      */
@@ -81,6 +190,29 @@ public abstract class ComputerVisionAbstract {
         }
     }
     
+    /**
+     * Undecoded model output produced by infer
+     */
+    protected static final class RawOutput {
+        final FloatBuffer buffer;
+        final long[] shape;
+        final boolean pooled;
+        
+        RawOutput(FloatBuffer buffer, long[] shape, boolean pooled) {
+            this.buffer = buffer;
+            this.shape = shape;
+            this.pooled = pooled;
+        }
+        
+        public FloatBuffer getBuffer() {
+            return buffer;
+        }
+        
+        public long[] getShape() {
+            return shape.clone();
+        }
+    }
+    
     /**
      * Constructor
      */
@@ -100,23 +232,68 @@ public abstract class ComputerVisionAbstract {
         initializeModel();
     }
     
+    /**
+     * Constructor with a session pool and threading configuration
+     */
+    public ComputerVisionAbstract(String modelPath, SessionPoolConfig sessionPoolConfig) {
+        this.modelPath = modelPath;
+        this.sessionPoolConfig = sessionPoolConfig;
+        initializeModel();
+    }
+    
+    /**
+     * Constructor sharing sessions through the given registry instead of the default one
+     */
+    public ComputerVisionAbstract(String modelPath, SessionPoolConfig sessionPoolConfig, ModelRegistry modelRegistry) {
+        this.modelPath = modelPath;
+        this.sessionPoolConfig = sessionPoolConfig;
+        this.modelRegistry = modelRegistry;
+        initializeModel();
+    }
+    
     /**
      * Initialize ONNX model
      */
     private void initializeModel() {
         try {
-        	
+            long startTime = System.currentTimeMillis();
             this.env = OrtEnvironment.getEnvironment();
-            this.session = env.createSession(modelPath, new OrtSession.SessionOptions());
+            this.modelHandle = modelRegistry.acquire(modelPath, sessionPoolConfig);
+            this.sessionPool = modelHandle.getSessionPool();
+            this.session = sessionPool.primary();
+            File modelFile = new File(modelPath);
+            this.modelVersion = modelFile.length() * 31 + modelFile.lastModified();
+            this.modelLoadTimeMs = System.currentTimeMillis() - startTime;
             
             System.out.println("Model loaded successfully: " + modelPath);
+            this.inputType = ((TensorInfo) session.getInputInfo().values().iterator().next().getInfo()).type;
+            this.outputType = ((TensorInfo) session.getOutputInfo().values().iterator().next().getInfo()).type;
+            if (!InputTensor.isSupported(inputType)) {
+                throw new IllegalStateException("Unsupported model input type: " + inputType);
+            }
+            if (outputType != OnnxJavaType.FLOAT && outputType != OnnxJavaType.FLOAT16) {
+                throw new IllegalStateException("Unsupported model output type: " + outputType);
+            }
             System.out.println("Input names: " + session.getInputNames());
             System.out.println("Output names: " + session.getOutputNames());
             
             // Allow subclasses to configure model-specific parameters
             configureModel();
             
+            // Synthetic runs so the first real request does not pay for ORT's lazy allocation
+            long warmUpStart = System.currentTimeMillis();
+            for (int[] shape : sessionPoolConfig.getWarmUpShapes()) {
+                for (int run = 0; run < sessionPoolConfig.getWarmUpRuns(); run++) {
+                    warmUp(shape[0], shape[1], shape.length > 2 ? shape[2] : 1);
+                }
+            }
+            this.warmUpTimeMs = System.currentTimeMillis() - warmUpStart;
+            this.startupTimeMs = System.currentTimeMillis() - startTime;
+            
         } catch (Exception e) {
+            if (modelHandle != null) {
+                modelHandle.close();
+            }
             throw new RuntimeException("Failed to load ONNX model: " + modelPath, e);
         }
     }
@@ -135,345 +312,1221 @@ public abstract class ComputerVisionAbstract {
      * Detect objects in image from file path
      */
     public Detection[] detect(String imagePath) throws IOException {
-        BufferedImage image = ImageIO.read(new File(imagePath));
-        return detect(image);
+        return toDetections(detect(new File(imagePath), new DetectionBatch()));
     }
     
     /**
-     * Detect objects in BufferedImage
+     * Detect objects in an image file on the inference executor.
+     * Completes with RejectedExecutionException when the request is shed under overload.
      */
-    public Detection[] detect(BufferedImage originalImage) {
-        try {
-            System.out.println("Processing image: " + originalImage.getWidth() + "x" + originalImage.getHeight());
-            
-            // Auto-calculate target dimensions maintaining aspect ratio
-            calculateOptimalDimensions(originalImage.getWidth(), originalImage.getHeight());
-            
-            // Preprocess image
-            BufferedImage resizedImage = resizeImage(originalImage, targetWidth, targetHeight);
-            float[] inputData = imageToTensorData(resizedImage, mean, std);
-            
-            // Create tensor and run inference
-            long[] shape = new long[]{1, channels, targetHeight, targetWidth};
-            
-            try (OnnxTensor tensor = OnnxTensor.createTensor(env, java.nio.FloatBuffer.wrap(inputData), shape)) {
-                
-                String inputName = session.getInputNames().iterator().next();
-                Map<String, OnnxTensor> inputMap = Collections.singletonMap(inputName, tensor);
-                
-                long startTime = System.currentTimeMillis();
-                OrtSession.Result result = session.run(inputMap);
-                long endTime = System.currentTimeMillis();
-                
-                System.out.println("Inference time: " + (endTime - startTime) + "ms");
-                
-                // Process output
-                String outputName = session.getOutputNames().iterator().next();
-                Object outputValue = result.get(outputName);
-                
-                Detection[] detections = processOutput(outputValue, originalImage.getWidth(), originalImage.getHeight());
-                
-                result.close();
-                return detections;
+    public CompletableFuture<Detection[]> detectAsync(String imagePath) {
+        return submitAsync(() -> detect(imagePath));
+    }
+    
+    /**
+     * Detect objects in a BufferedImage on the inference executor.
+     * Completes with RejectedExecutionException when the request is shed under overload.
+     */
+    public CompletableFuture<Detection[]> detectAsync(BufferedImage image) {
+        return submitAsync(() -> detect(image));
+    }
+    
+    /**
+     * Detect into a reusable result on the inference executor; the result must not be
+     * touched until the future completes
+     */
+    public CompletableFuture<DetectionBatch> detectAsync(BufferedImage image, DetectionBatch result) {
+        return submitAsync(() -> detect(image, result));
+    }
+    
+    private <T> CompletableFuture<T> submitAsync(Callable<T> work) {
+        InferenceExecutor executor;
+        synchronized (asyncLock) {
+            if (closed) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new RejectedExecutionException("Detector is closed"));
+                return failed;
             }
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Detection failed", e);
+            if (inferenceExecutor == null) {
+                int threads = asyncConfig.getThreads() > 0 ? asyncConfig.getThreads() : sessionPool.getSize();
+                inferenceExecutor = new InferenceExecutor(threads, asyncConfig);
+            }
+            executor = inferenceExecutor;
         }
+        // Outside the lock: BLOCK may wait here for queue space
+        return executor.submit(work);
     }
     
     /**
-     * Calculate optimal dimensions maintaining aspect ratio
+     * Detect objects in an image file into a reusable result, replacing its contents.
+     * The dimensions are read from the header first and, with subsampled decoding on,
+     * only about as many pixels as the model input needs are decoded; boxes are still
+     * reported in original image coordinates. Images tiled by the tiling config are
+     * decoded at full resolution. With a result cache the file bytes are hashed first
+     * and a hit skips decoding.
      */
-    protected void calculateOptimalDimensions(int originalWidth, int originalHeight) {
-        // Default behavior: use fixed target dimensions
-        // Subclasses can override for different strategies
-        
-        float aspectRatio = (float) originalWidth / originalHeight;
-        
-        if (aspectRatio > 1.0) {
-            // Landscape: fix width, adjust height
-            targetWidth = 640;
-            targetHeight = Math.round(640 / aspectRatio);
-            // Ensure height is multiple of 32 (common YOLO requirement)
-            targetHeight = ((targetHeight + 31) / 32) * 32;
-        } else {
-            // Portrait: fix height, adjust width
-            targetHeight = 640;
-            targetWidth = Math.round(640 * aspectRatio);
-            // Ensure width is multiple of 32
-            targetWidth = ((targetWidth + 31) / 32) * 32;
+    public DetectionBatch detect(File imageFile, DetectionBatch result) throws IOException {
+        ResultCache cache = this.resultCache;
+        if (cache == null) {
+            try (ImageInputStream input = ImageIO.createImageInputStream(imageFile)) {
+                return detect(input, imageFile, result);
+            }
         }
         
-        System.out.println("Auto-calculated target dimensions: " + targetWidth + "x" + targetHeight);
+        byte[] data = Files.readAllBytes(imageFile.toPath());
+        ResultCache.Key key = cacheKey(ContentHash.of(data));
+        if (!cache.get(key, result)) {
+            try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+                detect(input, imageFile, result);
+            }
+            cache.put(key, result);
+        }
+        return result;
     }
-      /**
-     * Process model output - can be overridden by subclasses
-     */
-    protected Detection[] processOutput(Object outputValue, int originalWidth, int originalHeight) {
+    
+    private DetectionBatch detect(ImageInputStream input, File imageFile, DetectionBatch result) throws IOException {
+        ImageReader reader = input != null ? ImageDecoder.open(input) : null;
+        if (reader == null) {
+            throw new IOException("Unsupported image format: " + imageFile);
+        }
         try {
-            System.out.println("Processing output value type: " + outputValue.getClass().getName());
-            
-            OnnxTensor outputTensor = extractTensorFromOutput(outputValue);
-            long[] shape = outputTensor.getInfo().getShape();
-            System.out.println("Output shape: " + Arrays.toString(shape));
-            
-            if (shape.length == 3) {
-                System.out.println("Processing 3D output tensor");
-                float[][][] output = (float[][][]) outputTensor.getValue();
-                return processDetections(output[0], originalWidth, originalHeight);
-            } else if (shape.length == 2) {
-                System.out.println("Processing 2D output tensor");
-                float[][] output = (float[][]) outputTensor.getValue();
-                return processDetections(output, originalWidth, originalHeight);            } else if (shape.length == 4) {
-                System.out.println("Processing 4D output tensor");
-                float[][][][] output = (float[][][][]) outputTensor.getValue();
-                // For 4D output, typically [batch, classes+coords, height, width] or [batch, anchors, coords+classes]
-                if (output.length > 0 && output[0].length > 0) {
-                    // Convert 4D to 2D: [classes+coords, num_detections]
-                    int numClasses = output[0].length;
-                    int numDetections = output[0][0].length * output[0][0][0].length;
-                    float[][] converted = new float[numClasses][numDetections];
-                    
-                    int idx = 0;
-                    for (int h = 0; h < output[0][0].length; h++) {
-                        for (int w = 0; w < output[0][0][0].length; w++) {
-                            for (int c = 0; c < numClasses; c++) {
-                                converted[c][idx] = output[0][c][h][w];
-                            }
-                            idx++;
-                        }
-                    }
-                    return processDetections(converted, originalWidth, originalHeight);
-                }
-            } else {
-                System.out.println("Unsupported output shape format: " + Arrays.toString(shape));
-                return new Detection[0];
+            int originalWidth = reader.getWidth(0);
+            int originalHeight = reader.getHeight(0);
+            TilingConfig tiling = this.tiling;
+            if (tiling != null && tiling.shouldTile(originalWidth, originalHeight)) {
+                return detectTiled(ImageDecoder.read(reader, 1), tiling, result);
             }
-            
-        } catch (Exception e) {
-            System.err.println("Error processing output: " + e.getMessage());
-            e.printStackTrace();
-            return new Detection[0];
+            Letterbox letterbox = letterboxFor(originalWidth, originalHeight);
+            long decodeStart = System.nanoTime();
+            BufferedImage image = decode(reader, letterbox);
+            return detect(image, letterbox, result, System.nanoTime() - decodeStart);
+        } finally {
+            reader.dispose();
         }
-        
-        return new Detection[0];
     }
     
     /**
-     * Extract tensor from various output formats
+     * Decode the reader's image, subsampled to about the letterbox content size when subsampled decoding is on
      */
-    private OnnxTensor extractTensorFromOutput(Object outputValue) {
-        if (outputValue instanceof java.util.Optional) {
-            java.util.Optional<?> optional = (java.util.Optional<?>) outputValue;
-            if (optional.isPresent() && optional.get() instanceof OnnxTensor) {
-                return (OnnxTensor) optional.get();
-            }
-            throw new RuntimeException("Optional output is empty or not an OnnxTensor");
-        } else if (outputValue instanceof OnnxTensor) {
-            return (OnnxTensor) outputValue;
-        } else {
-            throw new RuntimeException("Unexpected output type: " + outputValue.getClass());
+    private BufferedImage decode(ImageReader reader, Letterbox letterbox) throws IOException {
+        int factor = subsampledDecoding
+                ? ImageDecoder.subsamplingFactor(reader.getWidth(0), reader.getHeight(0),
+                        letterbox.getContentWidth(), letterbox.getContentHeight())
+                : 1;
+        return ImageDecoder.read(reader, factor);
+    }
+    
+    /**
+     * Detect objects in BufferedImage.
+     * Safe for concurrent callers on a shared instance.
+     */
+    public Detection[] detect(BufferedImage originalImage) {
+        return toDetections(detect(originalImage, new DetectionBatch()));
+    }
+    
+    /**
+     * Detect objects in BufferedImage into a reusable result, replacing its contents.
+     * Safe for concurrent callers as long as each uses its own DetectionBatch.
+     */
+    public DetectionBatch detect(BufferedImage originalImage, DetectionBatch result) {
+        ResultCache cache = this.resultCache;
+        if (cache == null) {
+            return detectUncached(originalImage, result);
+        }
+        ResultCache.Key key = cacheKey(ContentHash.of(originalImage));
+        if (!cache.get(key, result)) {
+            detectUncached(originalImage, result);
+            cache.put(key, result);
         }
+        return result;
     }
-      /**
-     * Process detections from YOLOv8 output
+    
+    /**
+     * Detect a frame of a video stream behind a motion gate: frames that barely changed
+     * since the last inferred frame skip inference and get its detections. Use one gate per stream.
+     * If inference fails the gate is reset, so the next frame is inferred rather than compared
+     * against a reference that has no detections.
      */
-    protected Detection[] processDetections(float[][] detections, int originalWidth, int originalHeight) {
-        float scaleX = (float) originalWidth / targetWidth;
-        float scaleY = (float) originalHeight / targetHeight;
-        
-        int numDetections = detections[0].length;
-        int numClasses = detections.length - 4;
-          System.out.println("Number of detections: " + numDetections);
-        System.out.println("Number of classes: " + numClasses);
-        System.out.println("Confidence threshold: " + confThreshold);
-        
-        // Update class names if needed
-        String[] classNames = getClassNames();
-        if (classNames.length != numClasses) {
-            System.out.println("Updating class names from " + classNames.length + " to " + numClasses + " classes");
-            classNames = updateClassNames(numClasses);
+    public DetectionBatch detect(BufferedImage frame, MotionGate gate, DetectionBatch result) {
+        if (!gate.shouldInfer(frame)) {
+            gate.recall(result);
+            return result;
+        }
+        long startTime = System.nanoTime();
+        try {
+            detect(frame, result);
+        } catch (RuntimeException e) {
+            // shouldInfer already made this frame the reference
+            gate.reset();
+            throw e;
+        }
+        gate.remember(result, System.nanoTime() - startTime);
+        return result;
+    }
+    
+    /**
+     * Detect objects in a raw frame from a native decoder or camera
+     */
+    public Detection[] detect(ByteBuffer pixels, int width, int height, int stride, PixelFormat format) {
+        return toDetections(detect(pixels, width, height, stride, format, new DetectionBatch()));
+    }
+    
+    /**
+     * Detect objects in a raw frame into a reusable result, replacing its contents.
+     * The fused kernel resizes and normalizes straight from the buffer, converting NV12 to RGB
+     * only for the sampled pixels, so a direct buffer is never copied onto the heap. Pixels are
+     * read from the buffer's position without changing it; stride is the number of bytes per
+     * row, per luma row for NV12. Raw frames always take the fused path and bypass the result
+     * cache; frames the tiling config would tile are converted to a BufferedImage first.
+     */
+    public DetectionBatch detect(ByteBuffer pixels, int width, int height, int stride, PixelFormat format, DetectionBatch result) {
+        PixelRowReader reader = PixelRowReader.of(pixels, width, height, stride, format);
+        TilingConfig tiling = this.tiling;
+        if (tiling != null && tiling.shouldTile(width, height)) {
+            return detectTiled(toImage(reader), tiling, result);
         }
         
-        java.util.List<Detection> validDetections = new java.util.ArrayList<>();
-        
-        for (int i = 0; i < numDetections; i++) {
-            float centerX = detections[0][i];
-            float centerY = detections[1][i];
-            float width = detections[2][i];
-            float height = detections[3][i];
+        try {
+            Letterbox letterbox = letterboxFor(width, height);
+            InferenceContext context = createContext(letterbox.getInputWidth(), letterbox.getInputHeight(), new Letterbox[]{letterbox});
+            InputTensor input = acquireInput(context);
+            try {
+                long startTime = System.nanoTime();
+                boolean raw = input.getType() == OnnxJavaType.UINT8;
+                LetterboxKernel.fill(reader, letterbox, interpolation == Interpolation.BILINEAR,
+                        raw ? RAW_MEAN : context.mean(), raw ? RAW_STD : context.std(), input.writer(), 0);
+                FrameMetrics metrics = context.metrics(0);
+                if (metrics != null) {
+                    metrics.fillNanos = System.nanoTime() - startTime;
+                }
+                runInference(input, context, new DetectionBatch[]{result});
+                return result;
+            } finally {
+                releaseInput(input);
+            }
             
-            // Find the class with highest confidence
-            int bestClass = 0;
-            float maxClassConf = detections[4][i];
+        } catch (Exception e) {
+            throw new RuntimeException("Detection failed", e);
+        }
+    }
+    
+    private static BufferedImage toImage(PixelRowReader reader) {
+        int width = reader.getWidth();
+        BufferedImage image = new BufferedImage(width, reader.getHeight(), BufferedImage.TYPE_INT_RGB);
+        int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int[] row = new int[width];
+        for (int y = 0; y < reader.getHeight(); y++) {
+            reader.readRow(y, row);
+            System.arraycopy(row, 0, data, y * width, width);
+        }
+        return image;
+    }
+    
+    private DetectionBatch detectUncached(BufferedImage originalImage, DetectionBatch result) {
+        TilingConfig tiling = this.tiling;
+        if (tiling != null && tiling.shouldTile(originalImage.getWidth(), originalImage.getHeight())) {
+            return detectTiled(originalImage, tiling, result);
+        }
+        return detect(originalImage, letterboxFor(originalImage.getWidth(), originalImage.getHeight()), result, 0);
+    }
+    
+    /**
+     * Detect with a precomputed letterbox; the image may be a reduced-resolution decode of the letterbox source
+     */
+    private DetectionBatch detect(BufferedImage image, Letterbox letterbox, DetectionBatch result, long decodeNanos) {
+        try {
+            InferenceContext context = createContext(letterbox.getInputWidth(), letterbox.getInputHeight(), new Letterbox[]{letterbox});
+            FrameMetrics metrics = context.metrics(0);
+            if (metrics != null) {
+                metrics.decodeNanos = decodeNanos;
+            }
             
-            for (int c = 1; c < numClasses; c++) {
-                float classConf = detections[4 + c][i];
-                if (classConf > maxClassConf) {
-                    maxClassConf = classConf;
-                    bestClass = c;
-                }
+            // Preprocess, run inference and decode straight from the output buffer
+            InputTensor input = acquireInput(context);
+            try {
+                preprocess(image, context, 0, input);
+                runInference(input, context, new DetectionBatch[]{result});
+                return result;
+            } finally {
+                releaseInput(input);
             }
             
-            if (maxClassConf > confThreshold) {
-                // Convert from center format to corner format
-                float x1 = (centerX - width / 2) * scaleX;
-                float y1 = (centerY - height / 2) * scaleY;
-                float x2 = (centerX + width / 2) * scaleX;
-                float y2 = (centerY + height / 2) * scaleY;
-                
-                // Ensure coordinates are within image bounds
-                x1 = Math.max(0, Math.min(x1, originalWidth));
-                y1 = Math.max(0, Math.min(y1, originalHeight));
-                x2 = Math.max(0, Math.min(x2, originalWidth));
-                y2 = Math.max(0, Math.min(y2, originalHeight));
-                
-                String className = (bestClass < classNames.length) ? classNames[bestClass] : "Unknown";
-                
-                Detection detection = new Detection(x1, y1, x2, y2, maxClassConf, bestClass, className);
-                validDetections.add(detection);
-            }        }          System.out.println("Valid detections before NMS: " + validDetections.size());
-        
-        // Apply NMS to remove overlapping detections
-        java.util.List<Detection> nmsDetections = applyNMS(validDetections, nmsThreshold);
-        
-        // Sort by confidence (highest first) for better presentation
-        nmsDetections.sort((a, b) -> Float.compare(b.confidence, a.confidence));
-        
-        System.out.println("Final detections after NMS: " + nmsDetections.size());
-        
-        // Log details of final detections
-        for (Detection det : nmsDetections) {
-            System.out.println("  " + det.className + " (class " + det.classId + "): confidence=" + 
-                             String.format("%.3f", det.confidence) + 
-                             ", bbox=[" + (int)det.x1 + "," + (int)det.y1 + "," + (int)det.x2 + "," + (int)det.y2 + "]");
+        } catch (Exception e) {
+            throw new RuntimeException("Detection failed", e);
         }
-        
-        return nmsDetections.toArray(new Detection[0]);
     }
     
     /**
-     * Apply Non-Maximum Suppression to remove overlapping detections
+     * Detect objects in overlapping tiles of a large image, plus optionally the whole image,
+     * and merge them with NMS across tiles into result. Tile batches run concurrently on
+     * the session pool; listeners are notified once per tile and per full-image pass.
      */
-    private java.util.List<Detection> applyNMS(java.util.List<Detection> detections, float nmsThreshold) {
-        if (detections.isEmpty()) return detections;
+    public DetectionBatch detectTiled(BufferedImage image, TilingConfig config, DetectionBatch result) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int tileWidth = Math.min(config.getTileWidth(), width);
+        int tileHeight = Math.min(config.getTileHeight(), height);
+        int[] xs = TilingConfig.tileOrigins(width, tileWidth, config.getOverlap());
+        int[] ys = TilingConfig.tileOrigins(height, tileHeight, config.getOverlap());
+        int tiles = xs.length * ys.length;
         
-        // Sort detections by confidence (highest first)
-        detections.sort((a, b) -> Float.compare(b.confidence, a.confidence));
+        // Every tile has the same size, so they share one letterbox and batch together
+        Letterbox letterbox = letterboxFor(tileWidth, tileHeight);
+        DetectionBatch[] tileResults = newDetectionBatches(tiles);
+        DetectionBatch fullResult = config.isFullImagePass() ? new DetectionBatch() : null;
         
-        java.util.List<Detection> result = new java.util.ArrayList<>();
-        boolean[] suppressed = new boolean[detections.size()];
+        int batchSize = config.getBatchSize();
+        int batches = (tiles + batchSize - 1) / batchSize;
+        // Unit 0 is the full-image pass when enabled, the rest are tile batches
+        int units = batches + (fullResult != null ? 1 : 0);
+        int parallelism = config.getParallelism() > 0 ? config.getParallelism() : sessionPool.getSize();
+        int workers = Math.max(1, Math.min(parallelism, units));
         
-        for (int i = 0; i < detections.size(); i++) {
-            if (suppressed[i]) continue;
-            
-            Detection current = detections.get(i);
-            result.add(current);
-            
-            // Suppress overlapping detections
-            for (int j = i + 1; j < detections.size(); j++) {
-                if (suppressed[j]) continue;
-                
-                Detection other = detections.get(j);
-                float iou = calculateIoU(current, other);
-                
-                if (iou > nmsThreshold) {
-                    suppressed[j] = true;
+        AtomicInteger nextUnit = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int unit;
+            while (failure.get() == null && (unit = nextUnit.getAndIncrement()) < units) {
+                try {
+                    if (fullResult != null && unit == 0) {
+                        detect(image, letterboxFor(width, height), fullResult, 0);
+                    } else {
+                        int from = (unit - (fullResult != null ? 1 : 0)) * batchSize;
+                        detectTiles(image, xs, ys, from, Math.min(tiles, from + batchSize), letterbox, tileResults);
+                    }
+                } catch (RuntimeException | OrtException e) {
+                    failure.compareAndSet(null, e);
                 }
             }
+        };
+        
+        List<CompletableFuture<Void>> helpers = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            try {
+                helpers.add(CompletableFuture.runAsync(worker, config.getExecutor()));
+            } catch (RejectedExecutionException e) {
+                // Saturated executor: the helpers already started and this thread do the rest
+                break;
+            }
+        }
+        worker.run();
+        CompletableFuture.allOf(helpers.toArray(new CompletableFuture<?>[0])).join();
+        if (failure.get() != null) {
+            throw new RuntimeException("Tiled detection failed", failure.get());
         }
         
+        mergeTiles(tileResults, xs, ys, fullResult, result);
         return result;
     }
     
     /**
-     * Calculate Intersection over Union (IoU) between two detections
+     * Preprocess tiles [from, to) into one batch and decode each into its tile-local result
      */
-    private float calculateIoU(Detection a, Detection b) {
-        // Calculate intersection
-        float intersectionX1 = Math.max(a.x1, b.x1);
-        float intersectionY1 = Math.max(a.y1, b.y1);
-        float intersectionX2 = Math.min(a.x2, b.x2);
-        float intersectionY2 = Math.min(a.y2, b.y2);
-        
-        if (intersectionX2 <= intersectionX1 || intersectionY2 <= intersectionY1) {
-            return 0.0f; // No intersection
+    private void detectTiles(BufferedImage image, int[] xs, int[] ys, int from, int to,
+                             Letterbox letterbox, DetectionBatch[] tileResults) throws OrtException {
+        List<BufferedImage> tileImages = new ArrayList<>(to - from);
+        Letterbox[] letterboxes = new Letterbox[to - from];
+        for (int tile = from; tile < to; tile++) {
+            // getSubimage shares the raster, no pixels are copied
+            tileImages.add(image.getSubimage(xs[tile % xs.length], ys[tile / xs.length],
+                    letterbox.getSourceWidth(), letterbox.getSourceHeight()));
+            letterboxes[tile - from] = letterbox;
         }
-        
-        float intersectionArea = (intersectionX2 - intersectionX1) * (intersectionY2 - intersectionY1);
-        
-        // Calculate union
-        float areaA = (a.x2 - a.x1) * (a.y2 - a.y1);
-        float areaB = (b.x2 - b.x1) * (b.y2 - b.y1);
-        float unionArea = areaA + areaB - intersectionArea;
-          return intersectionArea / unionArea;
+        detectBatch(tileImages, letterboxes, Arrays.copyOfRange(tileResults, from, to));
     }
     
     /**
-     * Resize image with high quality
+     * Shift tile detections to image coordinates and suppress duplicates across tiles and the full pass
      */
-    protected BufferedImage resizeImage(BufferedImage original, int targetWidth, int targetHeight) {
-        BufferedImage resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resized.createGraphics();
+    private void mergeTiles(DetectionBatch[] tileResults, int[] xs, int[] ys, DetectionBatch fullResult, DetectionBatch result) {
+        float nmsThreshold;
+        boolean classAware;
+        int maxDetections;
+        synchronized (configLock) {
+            nmsThreshold = this.nmsThreshold;
+            classAware = this.classAwareNms;
+            maxDetections = this.maxDetections;
+        }
         
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        CandidateBuffer merged = result.candidates;
+        merged.clear();
+        for (int tile = 0; tile < tileResults.length; tile++) {
+            int offsetX = xs[tile % xs.length];
+            int offsetY = ys[tile / xs.length];
+            DetectionBatch.Cursor cursor = tileResults[tile].cursor();
+            while (cursor.next()) {
+                merged.add(cursor.x1() + offsetX, cursor.y1() + offsetY, cursor.x2() + offsetX, cursor.y2() + offsetY,
+                        cursor.confidence(), cursor.classId());
+            }
+        }
+        if (fullResult != null) {
+            DetectionBatch.Cursor cursor = fullResult.cursor();
+            while (cursor.next()) {
+                merged.add(cursor.x1(), cursor.y1(), cursor.x2(), cursor.y2(), cursor.confidence(), cursor.classId());
+            }
+        }
         
-        g2d.drawImage(original, 0, 0, targetWidth, targetHeight, null);
-        g2d.dispose();
+        int keptCount = new NmsEngine(nmsThreshold, classAware).run(
+                merged.x1, merged.y1, merged.x2, merged.y2, merged.scores, merged.classIds, merged.size, merged.nms);
+        int[] kept = merged.nms.kept;
+        int count = maxDetections > 0 ? Math.min(keptCount, maxDetections) : keptCount;
         
-        return resized;
+        result.clear();
+        result.setClassNames(tileResults[0].classNames());
+        for (int k = 0; k < count; k++) {
+            int i = kept[k];
+            result.add(merged.x1[i], merged.y1[i], merged.x2[i], merged.y2[i], merged.scores[i], merged.classIds[i]);
+        }
     }
     
     /**
-     * Convert BufferedImage to tensor data in NCHW format
+     * Result cache key: image content, the loaded model and every setting that changes results
      */
-    protected float[] imageToTensorData(BufferedImage image, float[] mean, float[] std) {
-        
-    	int width = image.getWidth();
-        int height = image.getHeight();
-        
-        float[] tensorData = new float[channels * height * width];
-        int idx = 0;
-        
-        for (int c = 0; c < channels; c++) {
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    int rgb = image.getRGB(x, y);
-                    float value;
-                    
-                    if (c == 0) {
-                        value = ((rgb >> 16) & 0xFF) / 255.0f; // R
-                    } else if (c == 1) {
-                        value = ((rgb >> 8) & 0xFF) / 255.0f;  // G
-                    } else {
-                        value = (rgb & 0xFF) / 255.0f;         // B
-                    }
-                    
-                    value = (value - mean[c]) / std[c];
-                    tensorData[idx++] = value;
+    private ResultCache.Key cacheKey(ContentHash content) {
+        ContentHash settings = new ContentHash();
+        synchronized (configLock) {
+            settings.update(Float.floatToIntBits(confThreshold));
+            settings.update(Float.floatToIntBits(nmsThreshold));
+            settings.update(classAwareNms ? 1 : 0);
+            settings.update(maxCandidates);
+            settings.update(maxDetections);
+            if (classFilter != null) {
+                for (int k = 0; k < classFilter.length; k++) {
+                    settings.update(((long) classFilter[k] << 32) | Float.floatToIntBits(classThresholds[k]));
                 }
             }
+            for (int c = 0; c < mean.length; c++) {
+                settings.update(((long) Float.floatToIntBits(mean[c]) << 32) | Float.floatToIntBits(std[c]));
+            }
         }
-        
-        return tensorData;
+        settings.update(((long) targetWidth << 32) | targetHeight);
+        settings.update(fusedPreprocessing ? interpolation.ordinal() : -1);
+        settings.update(subsampledDecoding ? 1 : 0);
+        ShapeBuckets shapeBuckets = this.shapeBuckets;
+        if (shapeBuckets != null) {
+            for (int i = 0; i < shapeBuckets.size(); i++) {
+                settings.update(((long) shapeBuckets.getWidth(i) << 32) | shapeBuckets.getHeight(i));
+            }
+        }
+        TilingConfig tiling = this.tiling;
+        if (tiling != null) {
+            settings.update(((long) tiling.getTileWidth() << 32) | tiling.getTileHeight());
+            settings.update(Float.floatToIntBits(tiling.getOverlap()));
+            settings.update(tiling.isFullImagePass() ? 1 : 0);
+        }
+        // Labels differ between detectors sharing a cache even on the same model
+        for (String className : getClassNames()) {
+            byte[] name = String.valueOf(className).getBytes(StandardCharsets.UTF_8);
+            settings.update(name.length);
+            settings.update(name, 0, name.length);
+        }
+        return new ResultCache.Key(getClass().getName(), modelPath, modelVersion, settings.digest()[0], content);
     }
     
     /**
-     * Close resources
+     * Input geometry for a single image: the nearest shape bucket if set, else optimalDimensions
      */
-    public void close() {
+    protected Letterbox letterboxFor(int originalWidth, int originalHeight) {
+        Letterbox letterbox;
+        ShapeBuckets buckets = shapeBuckets;
+        if (buckets != null) {
+            // Letterbox into the nearest canonical shape
+            int bucket = buckets.acquire(originalWidth, originalHeight);
+            letterbox = Letterbox.fit(originalWidth, originalHeight, buckets.getWidth(bucket), buckets.getHeight(bucket));
+        } else {
+            // Auto-calculate target dimensions maintaining aspect ratio
+            int[] dims = optimalDimensions(originalWidth, originalHeight);
+            letterbox = Letterbox.stretch(originalWidth, originalHeight, dims[0], dims[1]);
+        }
+        return letterbox;
+    }
+    
+    /**
+     * Detect objects in several images with batched inference.
+     * Each image gets the input geometry of letterboxFor, as in detect(BufferedImage), so it
+     * gets the same detections. Images whose input shapes differ run as separate batches, so
+     * without shape buckets every distinct aspect ratio costs its own inference; set ShapeBuckets
+     * to letterbox mixed sizes into a few shapes and batch them together.
+     * Safe for concurrent callers on a shared instance.
+     */
+    public List<Detection[]> detectBatch(List<BufferedImage> images) {
+        Letterbox[] letterboxes = new Letterbox[images.size()];
+        for (int i = 0; i < letterboxes.length; i++) {
+            BufferedImage image = images.get(i);
+            letterboxes[i] = letterboxFor(image.getWidth(), image.getHeight());
+        }
+        return detectBatch(images, letterboxes);
+    }
+    
+    /**
+     * Batched inference over images with precomputed letterboxes of any shapes
+     */
+    private List<Detection[]> detectBatch(List<BufferedImage> images, Letterbox[] letterboxes) {
+        if (images.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        try {
+            int batchSize = images.size();
+            
+            // One inference per input shape, in first-seen order, as MicroBatcher does
+            Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < batchSize; i++) {
+                long shape = ((long) letterboxes[i].getInputWidth() << 32) | letterboxes[i].getInputHeight();
+                List<Integer> group = groups.get(shape);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(shape, group);
+                }
+                group.add(i);
+            }
+            
+            DetectionBatch[] batches = newDetectionBatches(batchSize);
+            for (List<Integer> group : groups.values()) {
+                int size = group.size();
+                List<BufferedImage> groupImages = new ArrayList<>(size);
+                Letterbox[] groupLetterboxes = new Letterbox[size];
+                DetectionBatch[] groupResults = new DetectionBatch[size];
+                for (int k = 0; k < size; k++) {
+                    int i = group.get(k);
+                    groupImages.add(images.get(i));
+                    groupLetterboxes[k] = letterboxes[i];
+                    groupResults[k] = batches[i];
+                }
+                detectBatch(groupImages, groupLetterboxes, groupResults);
+            }
+            return toDetectionList(batches);
+            
+        } catch (Exception e) {
+            throw new RuntimeException("Batch detection failed", e);
+        }
+    }
+    
+    /**
+     * Run one synthetic inference of the given shape on every pooled session.
+     * Lets ORT build its memory plan up front and records the output shape for pinned outputs.
+     */
+    protected void warmUp(int inputWidth, int inputHeight, int batchSize) throws OrtException {
+        long[] shape = new long[]{batchSize, channels, inputHeight, inputWidth};
+        String inputName = session.getInputNames().iterator().next();
+        String outputName = session.getOutputNames().iterator().next();
+        InputTensor input = InputTensor.acquire(tensorBufferPool, inputType, OutputLayout.elementCount(shape));
+        try (OnnxTensor tensor = input.createTensor(env, shape)) {
+            Map<String, OnnxTensor> inputMap = Collections.singletonMap(inputName, tensor);
+            for (OrtSession pooled : sessionPool.getSessions()) {
+                try (OrtSession.Result result = pooled.run(inputMap)) {
+                    OnnxTensor outputTensor = extractTensorFromOutput(result.get(outputName));
+                    if (outputTensor.getInfo().type == outputType) {
+                        outputShapes.put(Arrays.toString(shape), outputTensor.getInfo().getShape());
+                    }
+                }
+            }
+        } finally {
+            input.release(tensorBufferPool);
+        }
+    }
+    
+    /**
+     * Snapshot the current thresholds and normalization for one call
+     */
+    protected InferenceContext createContext(int inputWidth, int inputHeight, Letterbox[] letterboxes) {
+        synchronized (configLock) {
+            float[] thresholds = null;
+            if (classFilter != null) {
+                thresholds = new float[classFilter.length];
+                for (int k = 0; k < thresholds.length; k++) {
+                    thresholds[k] = Float.isNaN(classThresholds[k]) ? confThreshold : classThresholds[k];
+                }
+            }
+            return new InferenceContext(channels, inputWidth, inputHeight, letterboxes,
+                    confThreshold, nmsThreshold, classAwareNms, maxCandidates, maxDetections, mean, std,
+                    inputType, classFilter, thresholds, !detectionListeners.isEmpty());
+        }
+    }
+    
+    /**
+     * Write batch entry batchIndex of the context into the input tensor buffer
+     */
+    protected void preprocess(BufferedImage image, InferenceContext context, int batchIndex, FloatBuffer inputBuffer) {
+        preprocess(image, context, batchIndex, inputBuffer, null, context.mean(), context.std());
+    }
+    
+    /**
+     * Write batch entry batchIndex into an input tensor of the model's element type.
+     * FLOAT tensors go through the FloatBuffer overload; UINT8 tensors get raw 0-255 values.
+     */
+    protected void preprocess(BufferedImage image, InferenceContext context, int batchIndex, InputTensor input) {
+        if (input.getType() == OnnxJavaType.FLOAT) {
+            preprocess(image, context, batchIndex, input.floats());
+            return;
+        }
+        boolean raw = input.getType() == OnnxJavaType.UINT8;
+        preprocess(image, context, batchIndex, null, input.writer(),
+                raw ? RAW_MEAN : context.mean(), raw ? RAW_STD : context.std());
+    }
+    
+    /**
+     * Float buffers go through the overridable fillTensor / imageToTensorBuffer, other types through the writer
+     */
+    private void preprocess(BufferedImage image, InferenceContext context, int batchIndex,
+                            FloatBuffer floats, InputTensor.Writer writer, float[] mean, float[] std) {
+        Letterbox letterbox = context.getLetterbox(batchIndex);
+        int offset = batchIndex * context.getImageSize();
+        long startTime = System.nanoTime();
+        long resizeNanos = 0;
+        
+        if (fusedPreprocessing) {
+            // Resizes while filling; counted as fill
+            if (floats != null) {
+                fillTensor(image, letterbox, mean, std, floats, offset);
+            } else {
+                LetterboxKernel.fill(PixelRowReader.of(image), letterbox, interpolation == Interpolation.BILINEAR,
+                        mean, std, writer, offset);
+            }
+        } else {
+            BufferedImage resizedImage;
+            if (letterbox.getPadX() == 0 && letterbox.getPadY() == 0
+                    && letterbox.getContentWidth() == letterbox.getInputWidth()
+                    && letterbox.getContentHeight() == letterbox.getInputHeight()) {
+                resizedImage = resizeImage(image, letterbox.getInputWidth(), letterbox.getInputHeight());
+            } else {
+                resizedImage = letterboxImage(image, letterbox);
+            }
+            resizeNanos = System.nanoTime() - startTime;
+            if (floats != null) {
+                imageToTensorBuffer(resizedImage, mean, std, floats, offset);
+            } else {
+                writeTensor(resizedImage, mean, std, writer, offset);
+            }
+        }
+        
+        FrameMetrics metrics = context.metrics(batchIndex);
+        if (metrics != null) {
+            metrics.resizeNanos = resizeNanos;
+            metrics.fillNanos = System.nanoTime() - startTime - resizeNanos;
+        }
+    }
+    
+    /**
+     * Borrow an input tensor for every batch entry of the context, in the model's element type
+     */
+    protected InputTensor acquireInput(InferenceContext context) {
+        return InputTensor.acquire(tensorBufferPool, context.getInputType(), context.getBatchSize() * context.getImageSize());
+    }
+    
+    protected void releaseInput(InputTensor input) {
+        input.release(tensorBufferPool);
+    }
+    
+    /**
+     * One batched inference over images with precomputed letterboxes sharing an input shape,
+     * e.g. from letterboxFor; each image is decoded into its own result
+     */
+    protected void detectBatch(List<BufferedImage> images, Letterbox[] letterboxes, DetectionBatch[] results) throws OrtException {
+        int inputWidth = letterboxes[0].getInputWidth();
+        int inputHeight = letterboxes[0].getInputHeight();
+        for (Letterbox letterbox : letterboxes) {
+            if (letterbox.getInputWidth() != inputWidth || letterbox.getInputHeight() != inputHeight) {
+                throw new IllegalArgumentException("Letterboxes of one batch must share an input shape");
+            }
+        }
+        InferenceContext context = createContext(inputWidth, inputHeight, letterboxes);
+        
+        InputTensor input = acquireInput(context);
+        try {
+            for (int i = 0; i < letterboxes.length; i++) {
+                preprocess(images.get(i), context, i, input);
+            }
+            runInference(input, context, results);
+        } finally {
+            releaseInput(input);
+        }
+    }
+    
+    /**
+     * Detect objects in several image files with batched inference.
+     * Files are decoded like detect(File): the input geometry comes from the header and,
+     * with subsampled decoding on, only about as many pixels as the model input needs are decoded.
+     */
+    public List<Detection[]> detectBatch(String[] imagePaths) throws IOException {
+        List<BufferedImage> images = new ArrayList<>(imagePaths.length);
+        Letterbox[] letterboxes = new Letterbox[imagePaths.length];
+        for (int i = 0; i < imagePaths.length; i++) {
+            try (ImageInputStream input = ImageIO.createImageInputStream(new File(imagePaths[i]))) {
+                ImageReader reader = input != null ? ImageDecoder.open(input) : null;
+                if (reader == null) {
+                    throw new IOException("Unsupported image format: " + imagePaths[i]);
+                }
+                try {
+                    letterboxes[i] = letterboxFor(reader.getWidth(0), reader.getHeight(0));
+                    images.add(decode(reader, letterboxes[i]));
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        return detectBatch(images, letterboxes);
+    }
+    
+    /**
+     * Calculate optimal dimensions maintaining aspect ratio
+     * 
+     * @deprecated writes the shared target fields and is not used by detect;
+     *             override {@link #optimalDimensions(int, int)} instead
+     */
+    @Deprecated
+    protected void calculateOptimalDimensions(int originalWidth, int originalHeight) {
+        // Default behavior: use fixed target dimensions
+        // Subclasses can override for different strategies
+        
+        int[] dims = optimalDimensions(originalWidth, originalHeight);
+        targetWidth = dims[0];
+        targetHeight = dims[1];
+        
+        System.out.println("Auto-calculated target dimensions: " + targetWidth + "x" + targetHeight);
+    }
+    
+    /**
+     * Compute input dimensions {width, height} for an image without touching shared state
+     */
+    protected int[] optimalDimensions(int originalWidth, int originalHeight) {
+        float aspectRatio = (float) originalWidth / originalHeight;
+        int width;
+        int height;
+        
+        if (aspectRatio > 1.0) {
+            // Landscape: fix width, adjust height
+            width = 640;
+            height = Math.round(640 / aspectRatio);
+            // Ensure height is multiple of 32 (common YOLO requirement)
+            height = ((height + 31) / 32) * 32;
+        } else {
+            // Portrait: fix height, adjust width
+            height = 640;
+            width = Math.round(640 * aspectRatio);
+            // Ensure width is multiple of 32
+            width = ((width + 31) / 32) * 32;
+        }
+        
+        return new int[]{width, height};
+    }
+    /**
+     * Run the session on a filled input buffer and decode one detection array per batch entry
+     */
+    protected List<Detection[]> runInference(FloatBuffer inputBuffer, InferenceContext context) throws OrtException {
+        DetectionBatch[] batches = newDetectionBatches(context.getBatchSize());
+        runInference(inputBuffer, context, batches);
+        return toDetectionList(batches);
+    }
+    
+    /**
+     * Run the session on a filled input buffer and decode into one DetectionBatch per batch entry
+     */
+    protected void runInference(FloatBuffer inputBuffer, InferenceContext context, DetectionBatch[] results) throws OrtException {
+        RawOutput output = infer(inputBuffer, context);
         try {
-            if (session != null) {
-                session.close();
+            decodeOutput(output.buffer, output.shape, context, results);
+        } finally {
+            releaseOutput(output);
+        }
+    }
+    
+    /**
+     * Run the session on a filled input tensor and decode into one DetectionBatch per batch entry
+     */
+    protected void runInference(InputTensor input, InferenceContext context, DetectionBatch[] results) throws OrtException {
+        RawOutput output = infer(input, context);
+        try {
+            decodeOutput(output.buffer, output.shape, context, results);
+        } finally {
+            releaseOutput(output);
+        }
+    }
+    
+    /**
+     * Run the session on a filled input buffer without decoding.
+     * The input buffer may be released as soon as this returns; pass the result to releaseOutput once decoded.
+     */
+    protected RawOutput infer(FloatBuffer inputBuffer, InferenceContext context) throws OrtException {
+        try (OnnxTensor tensor = OnnxTensor.createTensor(env, inputBuffer, context.getInputShape())) {
+            return run(tensor, context);
+        }
+    }
+    
+    /**
+     * Run the session on a filled input tensor of any supported element type without decoding
+     */
+    protected RawOutput infer(InputTensor input, InferenceContext context) throws OrtException {
+        if (input.getType() == OnnxJavaType.FLOAT) {
+            return infer(input.floats(), context);
+        }
+        try (OnnxTensor tensor = input.createTensor(env, context.getInputShape())) {
+            return run(tensor, context);
+        }
+    }
+    
+    private RawOutput run(OnnxTensor tensor, InferenceContext context) throws OrtException {
+        String inputName = session.getInputNames().iterator().next();
+        String outputName = session.getOutputNames().iterator().next();
+        String shapeKey = Arrays.toString(context.getInputShape());
+        long[] outputShape = outputShapes.get(shapeKey);
+        Map<String, OnnxTensor> inputMap = Collections.singletonMap(inputName, tensor);
+        
+        if (outputShape != null) {
+            // Output shape known from an earlier run: ORT writes into a pooled direct buffer we decode in place;
+            // FLOAT16 outputs land in a half buffer and are widened into it
+            int elements = OutputLayout.elementCount(outputShape);
+            FloatBuffer outputBuffer = tensorBufferPool.acquire(elements);
+            ByteBuffer halfBuffer = outputType == OnnxJavaType.FLOAT16 ? tensorBufferPool.acquireBytes(elements * 2) : null;
+            try (OnnxTensor outputTensor = halfBuffer != null
+                    ? OnnxTensor.createTensor(env, halfBuffer, outputShape, OnnxJavaType.FLOAT16)
+                    : OnnxTensor.createTensor(env, outputBuffer, outputShape)) {
+                long startTime = System.nanoTime();
+                runPooled(inputMap, Collections.singletonMap(outputName, outputTensor)).close();
+                recordInference(context, System.nanoTime() - startTime);
+                if (halfBuffer != null) {
+                    ShortBuffer halves = halfBuffer.asShortBuffer();
+                    for (int i = 0; i < elements; i++) {
+                        outputBuffer.put(i, Fp16Conversions.fp16ToFloat(halves.get(i)));
+                    }
+                }
+                
+                return new RawOutput(outputBuffer, outputShape, true);
+            } catch (OrtException | RuntimeException e) {
+                tensorBufferPool.release(outputBuffer);
+                throw e;
+            } finally {
+                if (halfBuffer != null) {
+                    tensorBufferPool.release(halfBuffer);
+                }
             }
-            if (env != null) {
-                env.close();
+        }
+        
+        long startTime = System.nanoTime();
+        try (OrtSession.Result result = runPooled(inputMap, Collections.<String, OnnxTensor>emptyMap())) {
+            recordInference(context, System.nanoTime() - startTime);
+            
+            OnnxTensor outputTensor = extractTensorFromOutput(result.get(outputName));
+            OnnxJavaType type = outputTensor.getInfo().type;
+            if (type != OnnxJavaType.FLOAT && type != OnnxJavaType.FLOAT16) {
+                throw new IllegalStateException("Unsupported output type: " + type);
             }
-       
+            long[] shape = outputTensor.getInfo().getShape();
+            outputShapes.put(shapeKey, shape);
+            
+            // getFloatBuffer copies (widening FLOAT16), so the copy outlives the result
+            return new RawOutput(outputTensor.getFloatBuffer(), shape, false);
+        }
+    }
+    
+    private static void recordInference(InferenceContext context, long nanos) {
+        for (int i = 0; i < context.getBatchSize(); i++) {
+            FrameMetrics metrics = context.metrics(i);
+            if (metrics != null) {
+                metrics.inferenceNanos = nanos;
+            }
+        }
+    }
+    
+    /**
+     * Return the buffer of an infer result to the pool
+     */
+    protected void releaseOutput(RawOutput output) {
+        if (output.pooled) {
+            tensorBufferPool.release(output.buffer);
+        }
+    }
+    
+    /**
+     * Run on a session checked out from the pool; pinnedOutputs may be empty
+     */
+    private OrtSession.Result runPooled(Map<String, OnnxTensor> inputs, Map<String, OnnxTensor> pinnedOutputs) throws OrtException {
+        OrtSession pooled = sessionPool.borrow();
+        try {
+            long startTime = System.nanoTime();
+            OrtSession.Result result = pinnedOutputs.isEmpty() ? pooled.run(inputs) : pooled.run(inputs, pinnedOutputs);
+            firstInferenceNanos.compareAndSet(-1, System.nanoTime() - startTime);
+            return result;
+        } finally {
+            sessionPool.release(pooled);
+        }
+    }
+    
+    /**
+     * Decode a flat output buffer into one detection array per batch entry
+     */
+    protected List<Detection[]> decodeOutput(FloatBuffer output, long[] shape, InferenceContext context) {
+        DetectionBatch[] batches = newDetectionBatches(context.getBatchSize());
+        decodeOutput(output, shape, context, batches);
+        return toDetectionList(batches);
+    }
+    
+    /**
+     * Decode a flat output buffer into one DetectionBatch per batch entry
+     */
+    protected void decodeOutput(FloatBuffer output, long[] shape, InferenceContext context, DetectionBatch[] results) {
+        for (int i = 0; i < context.getBatchSize(); i++) {
+            processDetections(output, shape, i, context, results[i]);
+        }
+    }
+    
+    private static DetectionBatch[] newDetectionBatches(int count) {
+        DetectionBatch[] batches = new DetectionBatch[count];
+        for (int i = 0; i < count; i++) {
+            batches[i] = new DetectionBatch();
+        }
+        return batches;
+    }
+    
+    private List<Detection[]> toDetectionList(DetectionBatch[] batches) {
+        List<Detection[]> results = new ArrayList<>(batches.length);
+        for (DetectionBatch batch : batches) {
+            results.add(toDetections(batch));
+        }
+        return results;
+    }
+    
+    /**
+     * Process model output - can be overridden by subclasses
+     */
+    protected Detection[] processOutput(Object outputValue, int originalWidth, int originalHeight) {
+        try {
+            OnnxTensor outputTensor = extractTensorFromOutput(outputValue);
+            long[] shape = outputTensor.getInfo().getShape();
+            
+            if (shape.length < 2 || shape.length > 4) {
+                System.out.println("Unsupported output shape format: " + Arrays.toString(shape));
+                return new Detection[0];
+            }
+            
+            Letterbox letterbox = Letterbox.stretch(originalWidth, originalHeight, targetWidth, targetHeight);
+            InferenceContext context = createContext(targetWidth, targetHeight, new Letterbox[]{letterbox});
+            return processDetections(outputTensor.getFloatBuffer(), shape, 0, context);
             
+        } catch (Exception e) {
+            System.err.println("Error processing output: " + e.getMessage());
+            e.printStackTrace();
+            return new Detection[0];
+        }
+    }
+    
+    /**
+     * Process batched model output into one detection array per image
+     */
+    protected List<Detection[]> processBatchOutput(Object outputValue, InferenceContext context) {
+        OnnxTensor outputTensor = extractTensorFromOutput(outputValue);
+        return decodeOutput(outputTensor.getFloatBuffer(), outputTensor.getInfo().getShape(), context);
+    }
+    
+    /**
+     * Extract tensor from various output formats
+     */
+    private OnnxTensor extractTensorFromOutput(Object outputValue) {
+        if (outputValue instanceof java.util.Optional) {
+            java.util.Optional<?> optional = (java.util.Optional<?>) outputValue;
+            if (optional.isPresent() && optional.get() instanceof OnnxTensor) {
+                return (OnnxTensor) optional.get();
+            }
+            throw new RuntimeException("Optional output is empty or not an OnnxTensor");
+        } else if (outputValue instanceof OnnxTensor) {
+            return (OnnxTensor) outputValue;
+        } else {
+            throw new RuntimeException("Unexpected output type: " + outputValue.getClass());
+        }
+    }
+      /**
+     * Process detections from YOLOv8 output
+     */
+    protected Detection[] processDetections(float[][] detections, int originalWidth, int originalHeight) {
+        return processDetections(detections, Letterbox.stretch(originalWidth, originalHeight, targetWidth, targetHeight));
+    }
+    
+    /**
+     * Process detections from YOLOv8 output, mapping boxes back through the given letterbox
+     */
+    protected Detection[] processDetections(float[][] detections, Letterbox letterbox) {
+        int numChannels = detections.length;
+        int numAnchors = detections[0].length;
+        float[] flat = new float[numChannels * numAnchors];
+        for (int c = 0; c < numChannels; c++) {
+            System.arraycopy(detections[c], 0, flat, c * numAnchors, numAnchors);
+        }
+        InferenceContext context = createContext(letterbox.getInputWidth(), letterbox.getInputHeight(), new Letterbox[]{letterbox});
+        return processDetections(FloatBuffer.wrap(flat), new long[]{numChannels, numAnchors}, 0, context);
+    }
+    
+    /**
+     * Process detections for one batch entry of a flat output buffer with the given shape
+     */
+    protected Detection[] processDetections(FloatBuffer output, long[] shape, int batchIndex, InferenceContext context) {
+        DetectionBatch batch = new DetectionBatch();
+        processDetections(output, shape, batchIndex, context, batch);
+        return toDetections(batch);
+    }
+    
+    /**
+     * Process detections for one batch entry into a reusable DetectionBatch, replacing its contents
+     */
+    protected void processDetections(FloatBuffer output, long[] shape, int batchIndex, InferenceContext context, DetectionBatch result) {
+        Letterbox letterbox = context.getLetterbox(batchIndex);
+        float confThreshold = context.getConfThreshold();
+        float nmsThreshold = context.getNmsThreshold();
+        int originalWidth = letterbox.getSourceWidth();
+        int originalHeight = letterbox.getSourceHeight();
+        
+        OutputLayout layout = OutputLayout.of(shape);
+        int base = layout.offset(batchIndex, 0);
+        int stride = layout.channelStride;
+        
+        int numDetections = layout.numAnchors;
+        int numClasses = layout.numChannels - 4;
+        long startTime = System.nanoTime();
+        
+        // Update class names if needed
+        String[] classNames = getClassNames();
+        if (classNames.length != numClasses) {
+            classNames = updateClassNames(numClasses);
+        }
+        
+        // Candidates stay in primitive arrays; Detection objects are only built for survivors
+        CandidateBuffer candidates = result.candidates;
+        candidates.clear();
+        
+        // Class rows are streamed block by block; box rows are only read for anchors above the threshold.
+        // With a class filter only the allowed rows are read, each against its own threshold
+        int[] classFilter = context.classFilter();
+        float[] classThresholds = context.classThresholds();
+        ScoreDecoder decoder = result.scoreDecoder();
+        FloatBuffer scores = output.duplicate();
+        for (int from = 0; from < numDetections; from += ScoreDecoder.BLOCK) {
+            int count = Math.min(ScoreDecoder.BLOCK, numDetections - from);
+            int passed = classFilter == null
+                    ? decoder.decode(scores, base + 4 * stride + from, stride, numClasses, count, confThreshold)
+                    : decoder.decode(scores, base + 4 * stride + from, stride, numClasses, classFilter, classThresholds, count);
+            for (int k = 0; k < passed; k++) {
+                int anchor = decoder.passed[k];
+                int idx = base + from + anchor;
+                float centerX = output.get(idx);
+                float centerY = output.get(idx + stride);
+                float width = output.get(idx + 2 * stride);
+                float height = output.get(idx + 3 * stride);
+                
+                // Convert from center format to corner format
+                float x1 = letterbox.toSourceX(centerX - width / 2);
+                float y1 = letterbox.toSourceY(centerY - height / 2);
+                float x2 = letterbox.toSourceX(centerX + width / 2);
+                float y2 = letterbox.toSourceY(centerY + height / 2);
+                
+                // Ensure coordinates are within image bounds
+                x1 = Math.max(0, Math.min(x1, originalWidth));
+                y1 = Math.max(0, Math.min(y1, originalHeight));
+                x2 = Math.max(0, Math.min(x2, originalWidth));
+                y2 = Math.max(0, Math.min(y2, originalHeight));
+                
+                candidates.add(x1, y1, x2, y2, decoder.maxScores[anchor], decoder.classIds[anchor]);
+            }
+        }
+        long decodedTime = System.nanoTime();
+        int candidateCount = candidates.size;
+        
+        // Bound the NMS cost on noisy frames
+        candidates.retainTopK(context.getMaxCandidates());
+        
+        // Apply NMS to remove overlapping detections; kept indices are in descending confidence order
+        int keptCount = new NmsEngine(nmsThreshold, context.isClassAwareNms()).run(
+                candidates.x1, candidates.y1, candidates.x2, candidates.y2,
+                candidates.scores, candidates.classIds, candidates.size, candidates.nms);
+        int[] kept = candidates.nms.kept;
+        int maxDetections = context.getMaxDetections();
+        int count = maxDetections > 0 ? Math.min(keptCount, maxDetections) : keptCount;
+        
+        result.clear();
+        result.setClassNames(classNames);
+        for (int k = 0; k < count; k++) {
+            int i = kept[k];
+            result.add(candidates.x1[i], candidates.y1[i], candidates.x2[i], candidates.y2[i],
+                    candidates.scores[i], candidates.classIds[i]);
+        }
+        
+        FrameMetrics metrics = context.metrics(batchIndex);
+        if (metrics != null) {
+            metrics.outputDecodeNanos = decodedTime - startTime;
+            metrics.nmsNanos = System.nanoTime() - decodedTime;
+            metrics.candidates = candidateCount;
+            metrics.survivors = count;
+            notifyListeners(metrics, result);
+        }
+    }
+    
+    private void notifyListeners(FrameMetrics metrics, DetectionBatch result) {
+        for (DetectionListener listener : detectionListeners) {
+            try {
+                listener.onFrame(metrics, result);
+            } catch (RuntimeException e) {
+                System.err.println("Detection listener failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Convert a DetectionBatch for the Detection[] API
+     */
+    private Detection[] toDetections(DetectionBatch batch) {
+        return batch.toDetections();
+    }
+    
+    /**
+     * Resize image with high quality
+     */
+    protected BufferedImage resizeImage(BufferedImage original, int targetWidth, int targetHeight) {
+        BufferedImage resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = resized.createGraphics();
+        
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        g2d.drawImage(original, 0, 0, targetWidth, targetHeight, null);
+        g2d.dispose();
+        
+        return resized;
+    }
+    
+    /**
+     * Letterbox image into the input shape, padding the borders with gray
+     */
+    protected BufferedImage letterboxImage(BufferedImage original, Letterbox letterbox) {
+        BufferedImage padded = new BufferedImage(letterbox.getInputWidth(), letterbox.getInputHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = padded.createGraphics();
+        
+        g2d.setColor(new java.awt.Color(Letterbox.PAD_VALUE, Letterbox.PAD_VALUE, Letterbox.PAD_VALUE));
+        g2d.fillRect(0, 0, letterbox.getInputWidth(), letterbox.getInputHeight());
+        
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        g2d.drawImage(original, letterbox.getPadX(), letterbox.getPadY(),
+                letterbox.getContentWidth(), letterbox.getContentHeight(), null);
+        g2d.dispose();
+        
+        return padded;
+    }
+    
+    /**
+     * Letterbox image into an inputWidth x inputHeight tensor slot in one pass.
+     * Returns the scale and pad offsets used, for mapping boxes back.
+     */
+    protected Letterbox letterboxToTensor(BufferedImage image, int inputWidth, int inputHeight,
+                                          float[] mean, float[] std, FloatBuffer target, int offset) {
+        Letterbox letterbox = Letterbox.fit(image.getWidth(), image.getHeight(), inputWidth, inputHeight);
+        fillTensor(image, letterbox, mean, std, target, offset);
+        return letterbox;
+    }
+    
+    /**
+     * Resize, pad, split channels and normalize image into the tensor buffer in one pass
+     */
+    protected void fillTensor(BufferedImage image, Letterbox letterbox, float[] mean, float[] std, FloatBuffer target, int offset) {
+        LetterboxKernel.fill(PixelRowReader.of(image), letterbox, interpolation == Interpolation.BILINEAR,
+                mean, std, InputTensor.Writer.of(target), offset);
+    }
+    
+    /**
+     * Write BufferedImage into a tensor buffer in NCHW format starting at offset.
+     * Produces the same values as imageToTensorData, reading the raster's backing
+     * array directly for INT_RGB, INT_ARGB, 3BYTE_BGR and 4BYTE_ABGR images.
+     */
+    protected void imageToTensorBuffer(BufferedImage image, float[] mean, float[] std, FloatBuffer target, int offset) {
+        writeTensor(image, mean, std, InputTensor.Writer.of(target), offset);
+    }
+    
+    private void writeTensor(BufferedImage image, float[] mean, float[] std, InputTensor.Writer out, int offset) {
+        PixelRowReader reader = PixelRowReader.of(image);
+        int width = reader.getWidth();
+        int height = reader.getHeight();
+        int planeSize = width * height;
+        
+        // Per-channel lookup table: 8-bit value -> normalized float
+        float[][] lut = new float[channels][256];
+        for (int c = 0; c < channels; c++) {
+            for (int v = 0; v < 256; v++) {
+                lut[c][v] = (v / 255.0f - mean[c]) / std[c];
+            }
+        }
+        
+        int[] rgb = new int[width];
+        float[] row = new float[width];
+        
+        for (int y = 0; y < height; y++) {
+            reader.readRow(y, rgb);
+            for (int c = 0; c < channels; c++) {
+                float[] table = lut[c];
+                int shift = 16 - 8 * c;
+                for (int x = 0; x < width; x++) {
+                    row[x] = table[(rgb[x] >> shift) & 0xFF];
+                }
+                out.put(offset + c * planeSize + y * width, row, width);
+            }
+        }
+    }
+    
+    /**
+     * Convert BufferedImage to tensor data in NCHW format.
+     * Reference implementation; detect uses imageToTensorBuffer.
+     */
+    protected float[] imageToTensorData(BufferedImage image, float[] mean, float[] std) {
+        
+    	int width = image.getWidth();
+        int height = image.getHeight();
+        
+        float[] tensorData = new float[channels * height * width];
+        int idx = 0;
+        
+        for (int c = 0; c < channels; c++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int rgb = image.getRGB(x, y);
+                    float value;
+                    
+                    if (c == 0) {
+                        value = ((rgb >> 16) & 0xFF) / 255.0f; // R
+                    } else if (c == 1) {
+                        value = ((rgb >> 8) & 0xFF) / 255.0f;  // G
+                    } else {
+                        value = (rgb & 0xFF) / 255.0f;         // B
+                    }
+                    
+                    value = (value - mean[c]) / std[c];
+                    tensorData[idx++] = value;
+                }
+            }
+        }
+        
+        return tensorData;
+    }
+    
+    /**
+     * Close resources
+     */
+    public void close() {
+        InferenceExecutor executor;
+        synchronized (asyncLock) {
+            closed = true;
+            executor = inferenceExecutor;
+            inferenceExecutor = null;
+        }
+        if (executor != null) {
+            // Queued async requests are cancelled; running ones finish before the sessions go away
+            executor.shutdown(true);
+        }
+        
+        // Sessions are shared through the registry; the OrtEnvironment is a process singleton and stays open
+        try {
+            if (modelHandle != null) {
+                modelHandle.close();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -481,16 +1534,160 @@ public abstract class ComputerVisionAbstract {
     
     // Getters and setters
     public void setConfThreshold(float confThreshold) {
-        this.confThreshold = confThreshold;
+        synchronized (configLock) {
+            this.confThreshold = confThreshold;
+        }
     }
     
     public void setNmsThreshold(float nmsThreshold) {
-        this.nmsThreshold = nmsThreshold;
+        synchronized (configLock) {
+            this.nmsThreshold = nmsThreshold;
+        }
+    }
+    
+    /**
+     * Suppress overlaps only between boxes of the same class (default: class-agnostic)
+     */
+    public void setClassAwareNms(boolean classAwareNms) {
+        synchronized (configLock) {
+            this.classAwareNms = classAwareNms;
+        }
+    }
+    
+    /**
+     * Keep at most this many highest-scoring candidates before NMS; 0 disables the limit
+     */
+    public void setMaxCandidates(int maxCandidates) {
+        synchronized (configLock) {
+            this.maxCandidates = maxCandidates;
+        }
+    }
+    
+    /**
+     * Return at most this many detections per image after NMS; 0 disables the limit
+     */
+    public void setMaxDetections(int maxDetections) {
+        synchronized (configLock) {
+            this.maxDetections = maxDetections;
+        }
+    }
+    
+    /**
+     * Detect only the classes of the filter, at their own thresholds; null (default) or an empty filter detects every class.
+     * Each anchor takes its best allowed class, so results can include boxes that a class filter
+     * applied after detection would drop; see ClassFilter.
+     */
+    public void setClassFilter(ClassFilter filter) {
+        synchronized (configLock) {
+            if (filter == null || filter.isEmpty()) {
+                this.classFilter = null;
+                this.classThresholds = null;
+                return;
+            }
+            int[] classIds = filter.getClassIds();
+            float[] thresholds = new float[classIds.length];
+            for (int k = 0; k < classIds.length; k++) {
+                thresholds[k] = filter.getThreshold(classIds[k]);
+            }
+            this.classFilter = classIds;
+            this.classThresholds = thresholds;
+        }
+    }
+    
+    /**
+     * Detect only the named classes at the confidence threshold
+     */
+    public void setAllowedClasses(String... classNames) {
+        List<String> names = Arrays.asList(getClassNames());
+        ClassFilter filter = new ClassFilter();
+        for (String className : classNames) {
+            int classId = names.indexOf(className);
+            if (classId < 0) {
+                throw new IllegalArgumentException("Unknown class: " + className);
+            }
+            filter.allow(classId);
+        }
+        setClassFilter(filter);
+    }
+    
+    /**
+     * Copy of the active class filter, or null when every class is detected
+     */
+    public ClassFilter getClassFilter() {
+        synchronized (configLock) {
+            if (classFilter == null) {
+                return null;
+            }
+            ClassFilter filter = new ClassFilter();
+            for (int k = 0; k < classFilter.length; k++) {
+                filter.allow(classFilter[k], classThresholds[k]);
+            }
+            return filter;
+        }
+    }
+    
+    /**
+     * Decode image files with source subsampling down to roughly the model input size (default on)
+     */
+    public void setSubsampledDecoding(boolean subsampledDecoding) {
+        this.subsampledDecoding = subsampledDecoding;
+    }
+    
+    /**
+     * Receive stage timings and results of every detected image
+     */
+    public void addDetectionListener(DetectionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        detectionListeners.add(listener);
+    }
+    
+    public void removeDetectionListener(DetectionListener listener) {
+        detectionListeners.remove(listener);
+    }
+    
+    /**
+     * Configure the detectAsync executor. A running executor finishes its queued requests
+     * and is replaced on the next detectAsync call.
+     */
+    public void setAsyncConfig(AsyncConfig asyncConfig) {
+        if (asyncConfig == null) {
+            throw new IllegalArgumentException("asyncConfig must not be null");
+        }
+        InferenceExecutor previous;
+        synchronized (asyncLock) {
+            this.asyncConfig = asyncConfig;
+            previous = inferenceExecutor;
+            inferenceExecutor = null;
+        }
+        if (previous != null) {
+            previous.shutdown(false);
+        }
+    }
+    
+    /**
+     * Queue depth, counters and queue wait times of the detectAsync executor; null before first use
+     */
+    public InferenceExecutor getInferenceExecutor() {
+        synchronized (asyncLock) {
+            return inferenceExecutor;
+        }
+    }
+    
+    public void setFusedPreprocessing(boolean fusedPreprocessing) {
+        this.fusedPreprocessing = fusedPreprocessing;
+    }
+    
+    public void setInterpolation(Interpolation interpolation) {
+        this.interpolation = interpolation;
     }
     
     public void setNormalization(float[] mean, float[] std) {
-        this.mean = mean.clone();
-        this.std = std.clone();
+        synchronized (configLock) {
+            this.mean = mean.clone();
+            this.std = std.clone();
+        }
     }
     
     public int getTargetWidth() {
@@ -500,6 +1697,117 @@ public abstract class ComputerVisionAbstract {
     public int getTargetHeight() {
         return targetHeight;
     }
+    
+    /**
+     * Enable shape-bucket mode and warm up every bucket; pass null to disable.
+     * Call from configureModel to warm up at load time. Per-bucket warm-up times
+     * are available from ShapeBuckets.getWarmUpTimeMs.
+     */
+    public void setShapeBuckets(ShapeBuckets shapeBuckets) {
+        if (shapeBuckets != null) {
+            try {
+                for (int i = 0; i < shapeBuckets.size(); i++) {
+                    long startTime = System.currentTimeMillis();
+                    warmUp(shapeBuckets.getWidth(i), shapeBuckets.getHeight(i), 1);
+                    shapeBuckets.setWarmUpTimeMs(i, System.currentTimeMillis() - startTime);
+                }
+            } catch (OrtException e) {
+                throw new RuntimeException("Shape bucket warm-up failed", e);
+            }
+        }
+        this.shapeBuckets = shapeBuckets;
+    }
+    
+    /**
+     * Active shape buckets with their hit counters, or null
+     */
+    public ShapeBuckets getShapeBuckets() {
+        return shapeBuckets;
+    }
+    
+    /**
+     * Detect images larger than a tile with detectTiled; null (default) scales every image to one input
+     */
+    public void setTiling(TilingConfig tiling) {
+        this.tiling = tiling;
+    }
+    
+    public TilingConfig getTiling() {
+        return tiling;
+    }
+    
+    /**
+     * Serve repeated images from a result cache; null (default) disables. Hits skip
+     * inference, so listeners are not notified for them.
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+    
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+    
+    public SessionPool getSessionPool() {
+        return sessionPool;
+    }
+    
+    /**
+     * Sessions, load time and memory estimate of the loaded model, shared with other users of the same model
+     */
+    public ModelRegistry.ModelStats getModelStats() {
+        return modelHandle.getStats();
+    }
+    
+    /**
+     * Element type of the model input: FLOAT, FLOAT16 or UINT8
+     */
+    public OnnxJavaType getInputType() {
+        return inputType;
+    }
+    
+    /**
+     * Element type of the model output: FLOAT or FLOAT16
+     */
+    public OnnxJavaType getOutputType() {
+        return outputType;
+    }
+    
+    /**
+     * Score decoder in use: "scalar", or "vector" and its vector species with the Vector API
+     */
+    public String getScoreDecoder() {
+        return VectorSupport.describe();
+    }
+    
+    /**
+     * Time to obtain the sessions; near zero when the model was already loaded by another instance
+     */
+    public long getModelLoadTimeMs() {
+        return modelLoadTimeMs;
+    }
+    
+    /**
+     * Time spent in the configured warm-up runs
+     */
+    public long getWarmUpTimeMs() {
+        return warmUpTimeMs;
+    }
+    
+    /**
+     * Constructor-to-ready time: model load, configureModel and warm-up
+     */
+    public long getStartupTimeMs() {
+        return startupTimeMs;
+    }
+    
+    /**
+     * Session run time of the first real inference, or -1 if none ran yet
+     */
+    public double getFirstInferenceTimeMs() {
+        long nanos = firstInferenceNanos.get();
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
 
     
    
@@ -0,0 +1,133 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 128-bit non-cryptographic hash (two murmur3-style lanes) of decoded pixels or file bytes.
+ * Fast enough to run on every frame; not meant to resist deliberately crafted collisions.
+ */
+final class ContentHash {
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    private long h1 = 0x243F6A8885A308D3L;
+    private long h2 = 0x13198A2E03707344L;
+    private long length;
+
+    /**
+     * Hash of the pixels as the detector sees them, plus size and image type.
+     * Unshared byte and int rasters are hashed straight from the backing array.
+     */
+    static ContentHash of(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ContentHash hash = new ContentHash();
+        hash.update(((long) width << 32) | height);
+        hash.update(image.getType());
+
+        Raster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        SampleModel sampleModel = raster.getSampleModel();
+        boolean whole = raster.getParent() == null && buffer.getNumBanks() == 1 && buffer.getOffset() == 0
+                && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+        if (whole && buffer instanceof DataBufferByte && sampleModel instanceof ComponentSampleModel) {
+            ComponentSampleModel component = (ComponentSampleModel) sampleModel;
+            byte[] data = ((DataBufferByte) buffer).getData();
+            int rowBytes = width * component.getPixelStride();
+            if (component.getScanlineStride() == rowBytes && data.length == rowBytes * height) {
+                hash.update(data, 0, data.length);
+                return hash;
+            }
+        } else if (whole && buffer instanceof DataBufferInt && sampleModel instanceof SinglePixelPackedSampleModel) {
+            int[] data = ((DataBufferInt) buffer).getData();
+            if (((SinglePixelPackedSampleModel) sampleModel).getScanlineStride() == width && data.length == width * height) {
+                hash.update(data, 0, data.length);
+                return hash;
+            }
+        }
+
+        // Subimages, padded rows and other layouts: hash the RGB rows
+        PixelRowReader reader = PixelRowReader.of(image);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            reader.readRow(y, row);
+            hash.update(row, 0, width);
+        }
+        return hash;
+    }
+
+    /**
+     * Hash of an encoded file
+     */
+    static ContentHash of(byte[] data) {
+        ContentHash hash = new ContentHash();
+        hash.update(data.length);
+        hash.update(data, 0, data.length);
+        return hash;
+    }
+
+    void update(long value) {
+        h1 ^= Long.rotateLeft(value * C1, 31) * C2;
+        h1 = Long.rotateLeft(h1, 27) * 5 + 0x52DCE729;
+        h2 ^= Long.rotateLeft(value * C2, 33) * C1;
+        h2 = Long.rotateLeft(h2, 31) * 5 + 0x38495AB5;
+        length++;
+    }
+
+    void update(byte[] data, int offset, int count) {
+        ByteBuffer bytes = ByteBuffer.wrap(data, offset, count).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.remaining() >= 8) {
+            update(bytes.getLong());
+        }
+        long tail = 0;
+        for (int shift = 0; bytes.hasRemaining(); shift += 8) {
+            tail |= (bytes.get() & 0xFFL) << shift;
+        }
+        update(tail);
+    }
+
+    void update(int[] data, int offset, int count) {
+        int end = offset + count;
+        int i = offset;
+        for (; i + 1 < end; i += 2) {
+            update(((long) data[i] << 32) | (data[i + 1] & 0xFFFFFFFFL));
+        }
+        if (i < end) {
+            update(data[i]);
+        }
+    }
+
+    /**
+     * The 128-bit hash as {high, low}
+     */
+    long[] digest() {
+        long a = h1 ^ length;
+        long b = h2 ^ length;
+        a += b;
+        b += a;
+        a = fmix(a);
+        b = fmix(b);
+        a += b;
+        b += a;
+        return new long[]{a, b};
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,226 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Arrays;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.Detection;
+
+/**
+ * Detections of one image stored as parallel primitive arrays, highest confidence first.
+ * A batch can be passed to detect again for the next frame; its arrays and the
+ * candidate, top-k and NMS scratch space are reused, so steady-state postprocessing
+ * allocates no arrays, only a few small per-call objects.
+ * Not thread-safe: use one batch per thread.
+ */
+public final class DetectionBatch {
+
+    private float[] x1;
+    private float[] y1;
+    private float[] x2;
+    private float[] y2;
+    private float[] confidences;
+    private int[] classIds;
+    private int size;
+    private String[] classNames = new String[0];
+    private final Cursor cursor = new Cursor();
+
+    // Scratch space for decoded candidates before NMS
+    final CandidateBuffer candidates = new CandidateBuffer(64);
+
+    // Created on first decode, so batches that are only copied into stay small
+    private ScoreDecoder scoreDecoder;
+
+    public DetectionBatch() {
+        this(16);
+    }
+
+    public DetectionBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x1 = new float[capacity];
+        y1 = new float[capacity];
+        x2 = new float[capacity];
+        y2 = new float[capacity];
+        confidences = new float[capacity];
+        classIds = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float getX1(int index) {
+        return x1[checkIndex(index)];
+    }
+
+    public float getY1(int index) {
+        return y1[checkIndex(index)];
+    }
+
+    public float getX2(int index) {
+        return x2[checkIndex(index)];
+    }
+
+    public float getY2(int index) {
+        return y2[checkIndex(index)];
+    }
+
+    public float getConfidence(int index) {
+        return confidences[checkIndex(index)];
+    }
+
+    public int getClassId(int index) {
+        return classIds[checkIndex(index)];
+    }
+
+    public String getClassName(int index) {
+        int classId = getClassId(index);
+        return classId < classNames.length ? classNames[classId] : "Unknown";
+    }
+
+    /**
+     * Flyweight cursor over this batch, rewound to before the first detection.
+     * The same cursor instance is returned on every call.
+     */
+    public Cursor cursor() {
+        cursor.index = -1;
+        return cursor;
+    }
+
+    /**
+     * Copy into Detection objects for callers of the Detection[] API
+     */
+    public Detection[] toDetections() {
+        Detection[] detections = new Detection[size];
+        for (int i = 0; i < size; i++) {
+            detections[i] = new Detection(x1[i], y1[i], x2[i], y2[i], confidences[i], classIds[i], getClassName(i));
+        }
+        return detections;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    String[] classNames() {
+        return classNames;
+    }
+
+    void setClassNames(String[] classNames) {
+        this.classNames = classNames;
+    }
+
+    /**
+     * Replace the contents with a copy of other's detections
+     */
+    void copyFrom(DetectionBatch other) {
+        clear();
+        for (int i = 0; i < other.size; i++) {
+            add(other.x1[i], other.y1[i], other.x2[i], other.y2[i], other.confidences[i], other.classIds[i]);
+        }
+        classNames = other.classNames;
+    }
+
+    ScoreDecoder scoreDecoder() {
+        if (scoreDecoder == null) {
+            scoreDecoder = VectorSupport.scoreDecoder();
+        }
+        return scoreDecoder;
+    }
+
+    void add(float bx1, float by1, float bx2, float by2, float confidence, int classId) {
+        if (size == confidences.length) {
+            int capacity = size * 2;
+            x1 = Arrays.copyOf(x1, capacity);
+            y1 = Arrays.copyOf(y1, capacity);
+            x2 = Arrays.copyOf(x2, capacity);
+            y2 = Arrays.copyOf(y2, capacity);
+            confidences = Arrays.copyOf(confidences, capacity);
+            classIds = Arrays.copyOf(classIds, capacity);
+        }
+        x1[size] = bx1;
+        y1[size] = by1;
+        x2[size] = bx2;
+        y2[size] = by2;
+        confidences[size] = confidence;
+        classIds[size] = classId;
+        size++;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "DetectionBatch[size=" + size + "]";
+    }
+
+    /**
+     * Iterates a DetectionBatch without creating per-detection objects
+     */
+    public final class Cursor {
+
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Advance to the next detection; false once past the last one
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        public float x1() {
+            return getX1(index);
+        }
+
+        public float y1() {
+            return getY1(index);
+        }
+
+        public float x2() {
+            return getX2(index);
+        }
+
+        public float y2() {
+            return getY2(index);
+        }
+
+        public float confidence() {
+            return getConfidence(index);
+        }
+
+        public int classId() {
+            return getClassId(index);
+        }
+
+        public String className() {
+            return getClassName(index);
+        }
+
+        public float width() {
+            return getX2(index) - getX1(index);
+        }
+
+        public float height() {
+            return getY2(index) - getY1(index);
+        }
+    }
+}
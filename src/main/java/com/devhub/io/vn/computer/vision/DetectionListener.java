@@ -0,0 +1,14 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Callback after each image has been detected, with its stage timings and results.
+ * Register with ComputerVisionAbstract.addDetectionListener; while no listener is
+ * registered no metrics are collected.
+ *
+ * Called on the detecting thread, possibly concurrently for concurrent detect calls.
+ * The DetectionBatch is only valid during the call.
+ */
+public interface DetectionListener {
+
+    void onFrame(FrameMetrics metrics, DetectionBatch detections);
+}
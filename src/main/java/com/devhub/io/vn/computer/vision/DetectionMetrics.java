@@ -0,0 +1,95 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * DetectionListener aggregating stage timings and candidate/survivor counts
+ * into lock-free histograms. Safe to share between detectors and threads.
+ */
+public final class DetectionMetrics implements DetectionListener {
+
+    /**
+     * Timed stages; TOTAL is the sum of the others for one image
+     */
+    public enum Stage {
+        DECODE,
+        RESIZE,
+        FILL,
+        INFERENCE,
+        OUTPUT_DECODE,
+        NMS,
+        TOTAL
+    }
+
+    private final Map<Stage, LatencyHistogram> stages = new EnumMap<>(Stage.class);
+    private final LatencyHistogram candidates = new LatencyHistogram();
+    private final LatencyHistogram survivors = new LatencyHistogram();
+
+    public DetectionMetrics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void onFrame(FrameMetrics metrics, DetectionBatch detections) {
+        stages.get(Stage.DECODE).record(metrics.getDecodeNanos());
+        stages.get(Stage.RESIZE).record(metrics.getResizeNanos());
+        stages.get(Stage.FILL).record(metrics.getFillNanos());
+        stages.get(Stage.INFERENCE).record(metrics.getInferenceNanos());
+        stages.get(Stage.OUTPUT_DECODE).record(metrics.getOutputDecodeNanos());
+        stages.get(Stage.NMS).record(metrics.getNmsNanos());
+        stages.get(Stage.TOTAL).record(metrics.getTotalNanos());
+        candidates.record(metrics.getCandidates());
+        survivors.record(metrics.getSurvivors());
+    }
+
+    /**
+     * Nanosecond timings of one stage
+     */
+    public LatencyHistogram getStage(Stage stage) {
+        return stages.get(stage);
+    }
+
+    public LatencyHistogram getCandidates() {
+        return candidates;
+    }
+
+    public LatencyHistogram getSurvivors() {
+        return survivors;
+    }
+
+    public Map<Stage, LatencyHistogram.Snapshot> snapshot() {
+        Map<Stage, LatencyHistogram.Snapshot> snapshot = new EnumMap<>(Stage.class);
+        for (Map.Entry<Stage, LatencyHistogram> entry : stages.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : stages.values()) {
+            histogram.reset();
+        }
+        candidates.reset();
+        survivors.reset();
+    }
+
+    /**
+     * Multi-line report with p50/p95/p99 per stage in milliseconds
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("DetectionMetrics[frames=")
+                .append(stages.get(Stage.TOTAL).getCount()).append("]\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot s = stages.get(stage).snapshot();
+            report.append(String.format("  %-13s p50=%8.3fms p95=%8.3fms p99=%8.3fms max=%8.3fms%n",
+                    stage, s.getP50() / 1e6, s.getP95() / 1e6, s.getP99() / 1e6, s.getMax() / 1e6));
+        }
+        report.append("  candidates    ").append(candidates.snapshot()).append('\n');
+        report.append("  survivors     ").append(survivors.snapshot());
+        return report.toString();
+    }
+}
@@ -0,0 +1,406 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.RawOutput;
+
+/**
+ * Streaming detection over a FrameSource with decode, preprocess, inference and
+ * postprocess running on separate workers connected by bounded queues.
+ *
+ * Decoded images, tensor buffers and DetectionBatch results are recycled through
+ * small rings, so a steady stream allocates little beyond what the decoder does.
+ * With a motion gate, frames that barely changed are decided on in the decode thread
+ * and pass the other stages without work.
+ */
+public final class DetectionPipeline {
+
+    private static final Frame POISON = new Frame(-1, null, 0);
+
+    private final ComputerVisionAbstract detector;
+    private final int preprocessThreads;
+    private final int inferenceThreads;
+    private final int postprocessThreads;
+    private final int queueCapacity;
+    private final boolean ordered;
+    private final MotionGateConfig motionGateConfig;
+    private volatile MotionGate motionGate;
+    private volatile boolean stopRequested;
+
+    public DetectionPipeline(ComputerVisionAbstract detector, PipelineConfig config) {
+        this.detector = detector;
+        this.preprocessThreads = config.getPreprocessThreads();
+        this.inferenceThreads = config.getInferenceThreads() > 0
+                ? config.getInferenceThreads() : detector.getSessionPool().getSize();
+        this.postprocessThreads = config.getPostprocessThreads();
+        this.queueCapacity = config.getQueueCapacity();
+        this.ordered = config.isOrdered();
+        this.motionGateConfig = config.getMotionGate();
+    }
+
+    /**
+     * Process every frame of the source, blocking until it is exhausted, stop is called or a stage fails.
+     * The consumer is never called concurrently; the FrameResult passed to it and its DetectionBatch
+     * are reused and only valid during the call. The source is closed when the run ends.
+     *
+     * @return number of frames delivered to the consumer
+     */
+    public long run(FrameSource source, Consumer<FrameResult> consumer) throws IOException, InterruptedException {
+        stopRequested = false;
+        MotionGate gate = motionGateConfig != null ? new MotionGate(motionGateConfig) : null;
+        motionGate = gate;
+        Run run = new Run(source, consumer, gate);
+        try {
+            run.start();
+            run.join();
+        } catch (InterruptedException e) {
+            run.fail(e);
+            throw e;
+        } finally {
+            source.close();
+        }
+
+        Throwable failure = run.failure.get();
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException("Detection pipeline failed", failure);
+        }
+        return run.delivered;
+    }
+
+    /**
+     * Stop reading new frames; frames already in flight are still delivered
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Skip counts and saved inference time of the current or last run; null without a motion gate
+     */
+    public MotionGate getMotionGate() {
+        return motionGate;
+    }
+
+    /**
+     * Detections of one frame, handed to the consumer of run
+     */
+    public static final class FrameResult {
+        private long sequence;
+        private int width;
+        private int height;
+        private boolean skipped;
+        private DetectionBatch detections;
+
+        /**
+         * Zero-based position of the frame in the source
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public DetectionBatch getDetections() {
+            return detections;
+        }
+
+        /**
+         * True when the motion gate skipped inference and the detections are those of the last inferred frame
+         */
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return "FrameResult[sequence=" + sequence + ", " + width + "x" + height + ", detections=" + detections.size()
+                    + (skipped ? ", skipped" : "") + "]";
+        }
+    }
+
+    /**
+     * One frame moving through the stages
+     */
+    private static final class Frame {
+        final long sequence;
+        BufferedImage image;
+        long decodeNanos;
+        long inferenceNanos;
+        boolean skipped;
+        int width;
+        int height;
+        InferenceContext context;
+        InputTensor input;
+        RawOutput output;
+        DetectionBatch detections;
+
+        Frame(long sequence, BufferedImage image, long decodeNanos) {
+            this.sequence = sequence;
+            this.image = image;
+            this.decodeNanos = decodeNanos;
+        }
+    }
+
+    private interface StageTask {
+        void process(Frame frame) throws Exception;
+    }
+
+    /**
+     * State of a single run
+     */
+    private final class Run {
+        final FrameSource source;
+        final Consumer<FrameResult> consumer;
+        final MotionGate gate;
+        final BlockingQueue<Frame> decoded = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Frame> preprocessed = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Frame> inferred = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<BufferedImage> imageRing = new ArrayBlockingQueue<>(queueCapacity + preprocessThreads);
+        final Queue<DetectionBatch> batchRing = new ConcurrentLinkedQueue<>();
+        final TensorBufferPool inputBuffers = new TensorBufferPool(2 * queueCapacity + preprocessThreads + inferenceThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        // Guarded by deliveryLock
+        final Object deliveryLock = new Object();
+        final Map<Long, Frame> pending = new HashMap<>();
+        final FrameResult result = new FrameResult();
+        long nextToDeliver;
+        long delivered;
+
+        Run(FrameSource source, Consumer<FrameResult> consumer, MotionGate gate) {
+            this.source = source;
+            this.consumer = consumer;
+            this.gate = gate;
+        }
+
+        void start() {
+            threads.add(new Thread(this::decode, "detection-pipeline-decode"));
+            AtomicInteger preprocessRemaining = new AtomicInteger(preprocessThreads);
+            for (int i = 0; i < preprocessThreads; i++) {
+                threads.add(worker("preprocess-" + i, decoded, preprocessed, preprocessRemaining, inferenceThreads, this::preprocess));
+            }
+            AtomicInteger inferenceRemaining = new AtomicInteger(inferenceThreads);
+            for (int i = 0; i < inferenceThreads; i++) {
+                threads.add(worker("inference-" + i, preprocessed, inferred, inferenceRemaining, postprocessThreads, this::infer));
+            }
+            AtomicInteger postprocessRemaining = new AtomicInteger(postprocessThreads);
+            for (int i = 0; i < postprocessThreads; i++) {
+                threads.add(worker("postprocess-" + i, inferred, null, postprocessRemaining, 0, this::postprocess));
+            }
+            for (Thread thread : threads) {
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        void join() throws InterruptedException {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        void fail(Throwable t) {
+            if (failure.compareAndSet(null, t)) {
+                abort();
+            }
+        }
+
+        void abort() {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            try {
+                // Unblocks a decode thread waiting on a stream
+                source.close();
+            } catch (IOException e) {
+                // Reported through the original failure
+            }
+        }
+
+        void decode() {
+            long sequence = 0;
+            try {
+                while (!stopRequested && failure.get() == null) {
+                    long startTime = System.nanoTime();
+                    BufferedImage image = source.next(imageRing.poll());
+                    if (image == null) {
+                        break;
+                    }
+                    Frame frame = new Frame(sequence++, image, System.nanoTime() - startTime);
+                    if (gate != null && !gate.shouldInfer(image)) {
+                        // Nothing downstream needs the pixels of a skipped frame
+                        frame.skipped = true;
+                        frame.width = image.getWidth();
+                        frame.height = image.getHeight();
+                        frame.image = null;
+                        imageRing.offer(image);
+                    }
+                    decoded.put(frame);
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                poison(decoded, preprocessThreads);
+            }
+        }
+
+        Thread worker(String name, BlockingQueue<Frame> in, BlockingQueue<Frame> out,
+                      AtomicInteger remaining, int downstreamWorkers, StageTask task) {
+            return new Thread(() -> {
+                try {
+                    while (true) {
+                        Frame frame = in.take();
+                        if (frame == POISON) {
+                            break;
+                        }
+                        task.process(frame);
+                        if (out != null) {
+                            out.put(frame);
+                        }
+                    }
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    if (remaining.decrementAndGet() == 0 && out != null) {
+                        poison(out, downstreamWorkers);
+                    }
+                }
+            }, "detection-pipeline-" + name);
+        }
+
+        /**
+         * Tell downstream workers the stream ended; gives up once the run failed, as nobody may be reading
+         */
+        void poison(BlockingQueue<Frame> queue, int count) {
+            try {
+                for (int i = 0; i < count; i++) {
+                    while (!queue.offer(POISON, 100, TimeUnit.MILLISECONDS)) {
+                        if (failure.get() != null) {
+                            return;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Only interrupted when aborting
+            }
+        }
+
+        void preprocess(Frame frame) {
+            if (frame.skipped) {
+                return;
+            }
+            frame.width = frame.image.getWidth();
+            frame.height = frame.image.getHeight();
+            Letterbox letterbox = detector.letterboxFor(frame.width, frame.height);
+            frame.context = detector.createContext(letterbox.getInputWidth(), letterbox.getInputHeight(), new Letterbox[]{letterbox});
+            FrameMetrics metrics = frame.context.metrics(0);
+            if (metrics != null) {
+                metrics.decodeNanos = frame.decodeNanos;
+            }
+            frame.input = InputTensor.acquire(inputBuffers, frame.context.getInputType(), frame.context.getImageSize());
+            detector.preprocess(frame.image, frame.context, 0, frame.input);
+
+            // The decoder may now overwrite this image with a later frame
+            imageRing.offer(frame.image);
+            frame.image = null;
+        }
+
+        void infer(Frame frame) throws Exception {
+            if (frame.skipped) {
+                return;
+            }
+            long startTime = System.nanoTime();
+            try {
+                frame.output = detector.infer(frame.input, frame.context);
+                frame.inferenceNanos = System.nanoTime() - startTime;
+            } finally {
+                frame.input.release(inputBuffers);
+                frame.input = null;
+            }
+        }
+
+        void postprocess(Frame frame) {
+            DetectionBatch detections = batchRing.poll();
+            if (detections == null) {
+                detections = new DetectionBatch();
+            }
+            if (frame.skipped) {
+                frame.detections = detections;
+                deliver(frame);
+                return;
+            }
+            try {
+                detector.decodeOutput(frame.output.buffer, frame.output.shape, frame.context, new DetectionBatch[]{detections});
+            } finally {
+                detector.releaseOutput(frame.output);
+                frame.output = null;
+            }
+            frame.detections = detections;
+            deliver(frame);
+        }
+
+        void deliver(Frame frame) {
+            synchronized (deliveryLock) {
+                if (!ordered) {
+                    emit(frame);
+                    return;
+                }
+                pending.put(frame.sequence, frame);
+                Frame next;
+                while ((next = pending.remove(nextToDeliver)) != null) {
+                    emit(next);
+                    nextToDeliver++;
+                }
+            }
+        }
+
+        void emit(Frame frame) {
+            if (gate != null) {
+                // Delivery order: out-of-order runs reuse the latest delivered inferred frame
+                if (frame.skipped) {
+                    gate.recall(frame.detections);
+                } else {
+                    gate.remember(frame.detections, frame.inferenceNanos);
+                }
+            }
+            result.sequence = frame.sequence;
+            result.width = frame.width;
+            result.height = frame.height;
+            result.skipped = frame.skipped;
+            result.detections = frame.detections;
+            try {
+                consumer.accept(result);
+            } finally {
+                result.detections = null;
+                batchRing.offer(frame.detections);
+            }
+            delivered++;
+        }
+    }
+}
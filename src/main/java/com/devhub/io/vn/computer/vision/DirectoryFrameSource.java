@@ -0,0 +1,58 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Frames read from the image files of a directory in file name order
+ */
+final class DirectoryFrameSource implements FrameSource {
+
+    private final File[] files;
+    private int next;
+
+    DirectoryFrameSource(File directory) throws IOException {
+        Set<String> suffixes = new HashSet<>();
+        for (String suffix : ImageIO.getReaderFileSuffixes()) {
+            suffixes.add(suffix.toLowerCase(Locale.ROOT));
+        }
+        File[] listed = directory.listFiles(file -> {
+            String name = file.getName();
+            int dot = name.lastIndexOf('.');
+            return file.isFile() && dot >= 0 && suffixes.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+        });
+        if (listed == null) {
+            throw new IOException("Not a readable directory: " + directory);
+        }
+        Arrays.sort(listed);
+        this.files = listed;
+    }
+
+    @Override
+    public BufferedImage next(BufferedImage reusable) throws IOException {
+        if (next >= files.length) {
+            return null;
+        }
+        File file = files[next++];
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            BufferedImage image = input != null ? ImageDecoder.read(input, reusable) : null;
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + file);
+            }
+            return image;
+        }
+    }
+
+    @Override
+    public void close() {
+        next = files.length;
+    }
+}
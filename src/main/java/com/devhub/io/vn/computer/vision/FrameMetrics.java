@@ -0,0 +1,128 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Stage timings and counts of one image, filled in while it moves through detection.
+ * Stages that did not run for the image (e.g. decode for an in-memory image, or resize
+ * with the fused kernel, which resizes while filling the tensor) stay at 0.
+ */
+public final class FrameMetrics {
+
+    private final int batchIndex;
+    private final int batchSize;
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int inputWidth;
+    private final int inputHeight;
+    long decodeNanos;
+    long resizeNanos;
+    long fillNanos;
+    long inferenceNanos;
+    long outputDecodeNanos;
+    long nmsNanos;
+    int candidates;
+    int survivors;
+
+    FrameMetrics(int batchIndex, int batchSize, Letterbox letterbox) {
+        this.batchIndex = batchIndex;
+        this.batchSize = batchSize;
+        this.sourceWidth = letterbox.getSourceWidth();
+        this.sourceHeight = letterbox.getSourceHeight();
+        this.inputWidth = letterbox.getInputWidth();
+        this.inputHeight = letterbox.getInputHeight();
+    }
+
+    /**
+     * Position of the image in its batch; 0 for single-image calls
+     */
+    public int getBatchIndex() {
+        return batchIndex;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    /**
+     * Image file or stream decoding
+     */
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * Resizing into an intermediate image (non-fused preprocessing only)
+     */
+    public long getResizeNanos() {
+        return resizeNanos;
+    }
+
+    /**
+     * Writing normalized floats into the input tensor buffer
+     */
+    public long getFillNanos() {
+        return fillNanos;
+    }
+
+    /**
+     * Session run; shared by every image of a batch
+     */
+    public long getInferenceNanos() {
+        return inferenceNanos;
+    }
+
+    /**
+     * Scanning the model output for candidates above the confidence threshold
+     */
+    public long getOutputDecodeNanos() {
+        return outputDecodeNanos;
+    }
+
+    /**
+     * Top-K selection, NMS and building the result
+     */
+    public long getNmsNanos() {
+        return nmsNanos;
+    }
+
+    public long getTotalNanos() {
+        return decodeNanos + resizeNanos + fillNanos + inferenceNanos + outputDecodeNanos + nmsNanos;
+    }
+
+    /**
+     * Boxes above the confidence threshold, before top-K and NMS
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Detections returned after NMS and the maxDetections cap
+     */
+    public int getSurvivors() {
+        return survivors;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FrameMetrics[%dx%d -> %dx%d, decode=%.2fms, resize=%.2fms, fill=%.2fms, inference=%.2fms, "
+                        + "output=%.2fms, nms=%.2fms, candidates=%d, survivors=%d]",
+                sourceWidth, sourceHeight, inputWidth, inputHeight, decodeNanos / 1e6, resizeNanos / 1e6, fillNanos / 1e6,
+                inferenceNanos / 1e6, outputDecodeNanos / 1e6, nmsNanos / 1e6, candidates, survivors);
+    }
+}
@@ -0,0 +1,53 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Sequential source of frames for a DetectionPipeline.
+ * next is always called from a single thread.
+ */
+public interface FrameSource extends Closeable {
+
+    /**
+     * Next frame, or null at the end of the stream.
+     *
+     * @param reusable a frame the pipeline has finished with, or null; sources that decode
+     *                 may decode into it when its size and type match
+     */
+    BufferedImage next(BufferedImage reusable) throws IOException;
+
+    /**
+     * Every readable image in a directory, in file name order
+     */
+    static FrameSource directory(File directory) throws IOException {
+        return new DirectoryFrameSource(directory);
+    }
+
+    /**
+     * JPEG frames from an MJPEG stream (multipart/x-mixed-replace body or concatenated JPEGs)
+     */
+    static FrameSource mjpeg(InputStream stream) {
+        return new MjpegFrameSource(stream);
+    }
+
+    /**
+     * Frames from an iterator of already decoded images
+     */
+    static FrameSource of(Iterator<BufferedImage> images) {
+        return new FrameSource() {
+            @Override
+            public BufferedImage next(BufferedImage reusable) {
+                return images.hasNext() ? images.next() : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
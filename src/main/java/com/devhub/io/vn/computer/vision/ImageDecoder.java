@@ -0,0 +1,82 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * ImageReader based decoding that can decode into a recycled BufferedImage
+ * or at a reduced resolution.
+ * There is deliberately no source-region decoding: detection letterboxes the full frame,
+ * so every part of the image is needed.
+ */
+final class ImageDecoder {
+
+    private ImageDecoder() {
+    }
+
+    /**
+     * Reader positioned on the stream, or null when no registered reader understands it.
+     * Dimensions are available from the header before decoding; dispose the reader when done.
+     */
+    static ImageReader open(ImageInputStream input) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    /**
+     * Decode the first image of the stream, into reusable when its size and type match the decoded image.
+     * Returns null when no registered reader understands the stream.
+     */
+    static BufferedImage read(ImageInputStream input, BufferedImage reusable) throws IOException {
+        ImageReader reader = open(input);
+        if (reader == null) {
+            return null;
+        }
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (reusable != null && reusable.getType() != BufferedImage.TYPE_CUSTOM
+                    && reusable.getWidth() == reader.getWidth(0) && reusable.getHeight() == reader.getHeight(0)) {
+                Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+                while (types.hasNext()) {
+                    if (types.next().getBufferedImageType() == reusable.getType()) {
+                        param.setDestination(reusable);
+                        break;
+                    }
+                }
+            }
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Decode the first image keeping every factor-th pixel in both directions
+     */
+    static BufferedImage read(ImageReader reader, int factor) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (factor > 1) {
+            param.setSourceSubsampling(factor, factor, 0, 0);
+        }
+        return reader.read(0, param);
+    }
+
+    /**
+     * Largest integer subsampling that still leaves at least targetWidth x targetHeight pixels
+     */
+    static int subsamplingFactor(int width, int height, int targetWidth, int targetHeight) {
+        return Math.max(1, Math.min(width / Math.max(1, targetWidth), height / Math.max(1, targetHeight)));
+    }
+}
@@ -0,0 +1,163 @@
+package com.devhub.io.vn.computer.vision;
+
+import ai.onnxruntime.OnnxJavaType;
+
+/**
+ * Immutable per-call state for one inference (single image or batch).
+ * Captures the input shape, the letterbox of every batch entry and the
+ * thresholds/normalization in effect when the call started, so concurrent
+ * callers sharing one ComputerVisionAbstract never see each other's values.
+ * The only mutable part is the optional FrameMetrics per batch entry, which
+ * belongs to this call alone.
+ */
+public final class InferenceContext {
+
+    private final int channels;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final Letterbox[] letterboxes;
+    private final float confThreshold;
+    private final float nmsThreshold;
+    private final boolean classAwareNms;
+    private final int maxCandidates;
+    private final int maxDetections;
+    private final float[] mean;
+    private final float[] std;
+    private final OnnxJavaType inputType;
+    private final int[] classFilter;
+    private final float[] classThresholds;
+    private final FrameMetrics[] metrics;
+
+    public InferenceContext(int channels, int inputWidth, int inputHeight, Letterbox[] letterboxes,
+                            float confThreshold, float nmsThreshold, boolean classAwareNms,
+                            int maxCandidates, int maxDetections, float[] mean, float[] std) {
+        this(channels, inputWidth, inputHeight, letterboxes, confThreshold, nmsThreshold, classAwareNms,
+                maxCandidates, maxDetections, mean, std, OnnxJavaType.FLOAT, null, null, false);
+    }
+
+    InferenceContext(int channels, int inputWidth, int inputHeight, Letterbox[] letterboxes,
+                     float confThreshold, float nmsThreshold, boolean classAwareNms,
+                     int maxCandidates, int maxDetections, float[] mean, float[] std,
+                     OnnxJavaType inputType, int[] classFilter, float[] classThresholds, boolean collectMetrics) {
+        this.channels = channels;
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.letterboxes = letterboxes.clone();
+        this.confThreshold = confThreshold;
+        this.nmsThreshold = nmsThreshold;
+        this.classAwareNms = classAwareNms;
+        this.maxCandidates = maxCandidates;
+        this.maxDetections = maxDetections;
+        this.mean = mean.clone();
+        this.std = std.clone();
+        this.inputType = inputType;
+        this.classFilter = classFilter;
+        this.classThresholds = classThresholds;
+        if (collectMetrics) {
+            this.metrics = new FrameMetrics[letterboxes.length];
+            for (int i = 0; i < letterboxes.length; i++) {
+                this.metrics[i] = new FrameMetrics(i, letterboxes.length, letterboxes[i]);
+            }
+        } else {
+            this.metrics = null;
+        }
+    }
+
+    public int getBatchSize() {
+        return letterboxes.length;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    /**
+     * Number of elements one image occupies in the input tensor
+     */
+    public int getImageSize() {
+        return channels * inputHeight * inputWidth;
+    }
+
+    /**
+     * NCHW input tensor shape
+     */
+    public long[] getInputShape() {
+        return new long[]{letterboxes.length, channels, inputHeight, inputWidth};
+    }
+
+    /**
+     * Element type of the input tensor: FLOAT, FLOAT16 or UINT8
+     */
+    public OnnxJavaType getInputType() {
+        return inputType;
+    }
+
+    public Letterbox getLetterbox(int batchIndex) {
+        return letterboxes[batchIndex];
+    }
+
+    public float getConfThreshold() {
+        return confThreshold;
+    }
+
+    public float getNmsThreshold() {
+        return nmsThreshold;
+    }
+
+    public boolean isClassAwareNms() {
+        return classAwareNms;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public int getMaxDetections() {
+        return maxDetections;
+    }
+
+    public float[] getMean() {
+        return mean.clone();
+    }
+
+    public float[] getStd() {
+        return std.clone();
+    }
+
+    /**
+     * Metrics record of a batch entry, or null when no listener is registered
+     */
+    FrameMetrics metrics(int batchIndex) {
+        return metrics != null ? metrics[batchIndex] : null;
+    }
+
+    /**
+     * Ascending allowed class ids, or null to decode every class
+     */
+    int[] classFilter() {
+        return classFilter;
+    }
+
+    /**
+     * Confidence threshold of each classFilter entry
+     */
+    float[] classThresholds() {
+        return classThresholds;
+    }
+
+    float[] mean() {
+        return mean;
+    }
+
+    float[] std() {
+        return std;
+    }
+}
@@ -0,0 +1,233 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed pool of daemon inference threads with a bounded queue, backing detectAsync.
+ * Counters, queue depth and queue wait times are exposed for monitoring overload.
+ */
+public final class InferenceExecutor {
+
+    private static final AtomicInteger EXECUTOR_IDS = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final BlockingQueue<Runnable> queue;
+    private final AsyncConfig.RejectionPolicy rejectionPolicy;
+    private final long blockTimeoutMs;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAccumulator peakQueueDepth = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    InferenceExecutor(int threads, AsyncConfig config) {
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.rejectionPolicy = config.getRejectionPolicy();
+        this.blockTimeoutMs = config.getBlockTimeoutMs();
+
+        int id = EXECUTOR_IDS.incrementAndGet();
+        AtomicInteger threadIds = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "detection-async-" + id + "-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, threadFactory);
+        // Workers must already be waiting on the queue for BLOCK to enqueue directly
+        executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Queue work, applying the rejection policy when the queue is full.
+     * Never throws; rejections are reported through the returned future.
+     */
+    <T> CompletableFuture<T> submit(Callable<T> work) {
+        Task<T> task = new Task<>(work);
+        submitted.increment();
+        if (executor.isShutdown()) {
+            return reject(task, "Inference executor is shut down", null);
+        }
+        try {
+            executor.execute(task);
+            peakQueueDepth.accumulate(queue.size());
+            return task.future;
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                return reject(task, "Inference executor is shut down", e);
+            }
+        }
+
+        switch (rejectionPolicy) {
+            case CALLER_RUNS:
+                callerRuns.increment();
+                task.run();
+                return task.future;
+            case BLOCK:
+                try {
+                    if (blockTimeoutMs == 0) {
+                        queue.put(task);
+                    } else if (!queue.offer(task, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return reject(task, "Inference queue still full after " + blockTimeoutMs + "ms", null);
+                    }
+                    // Shut down while waiting: nobody may take the task any more
+                    if (executor.isShutdown() && queue.remove(task)) {
+                        return reject(task, "Inference executor is shut down", null);
+                    }
+                    peakQueueDepth.accumulate(queue.size());
+                    return task.future;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return reject(task, "Interrupted while waiting for queue space", e);
+                }
+            case FAIL_FAST:
+            default:
+                return reject(task, "Inference queue full (" + queue.size() + " waiting)", null);
+        }
+    }
+
+    private <T> CompletableFuture<T> reject(Task<T> task, String message, Throwable cause) {
+        rejected.increment();
+        RejectedExecutionException e = new RejectedExecutionException(message);
+        if (cause != null) {
+            e.initCause(cause);
+        }
+        task.future.completeExceptionally(e);
+        return task.future;
+    }
+
+    /**
+     * Stop accepting work; with cancelQueued the waiting requests are cancelled, otherwise they still run.
+     * Waits for running detections to finish.
+     */
+    void shutdown(boolean cancelQueued) {
+        executor.shutdown();
+        if (cancelQueued) {
+            List<Runnable> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            for (Runnable runnable : pending) {
+                ((Task<?>) runnable).future.completeExceptionally(new CancellationException("Detector closed"));
+            }
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Requests waiting for a worker right now
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Highest queue depth seen after an enqueue
+     */
+    public long getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Workers currently running a detection
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Requests refused by FAIL_FAST, a BLOCK timeout or shutdown
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * Nanoseconds between submit and a worker starting the request
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InferenceExecutor[threads=%d, queue=%d/%d, peak=%d, active=%d, submitted=%d, "
+                        + "completed=%d, failed=%d, rejected=%d, callerRuns=%d, %s]",
+                getThreads(), getQueueDepth(), getQueueCapacity(), getPeakQueueDepth(), getActiveCount(),
+                getSubmittedCount(), getCompletedCount(), getFailedCount(), getRejectedCount(), getCallerRunsCount(),
+                rejectionPolicy);
+    }
+
+    /**
+     * Work with its future; skipped if the caller cancelled the future while it was queued
+     */
+    private final class Task<T> implements Runnable {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Callable<T> work;
+        final long submittedNanos = System.nanoTime();
+
+        Task(Callable<T> work) {
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            queueWait.record(System.nanoTime() - submittedNanos);
+            T value;
+            try {
+                value = work.call();
+            } catch (Throwable t) {
+                failed.increment();
+                future.completeExceptionally(t);
+                return;
+            }
+            // Counted first so stats read after the future completes include this request
+            completed.increment();
+            future.complete(value);
+        }
+    }
+}
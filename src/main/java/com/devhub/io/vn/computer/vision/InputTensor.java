@@ -0,0 +1,174 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import ai.onnxruntime.OnnxJavaType;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.platform.Fp16Conversions;
+
+/**
+ * Pooled direct input buffer in the element type the model declares: FLOAT, FLOAT16 or UINT8.
+ *
+ * Preprocessing produces rows of floats and writes them through a Writer, which converts
+ * FLOAT16 and UINT8 rows as they are written; those models never get a float32 staging
+ * tensor. UINT8 models receive raw 0-255 pixel values, their own graph does the scaling.
+ */
+public final class InputTensor {
+
+    private final OnnxJavaType type;
+    private final int elements;
+    private final FloatBuffer floats;
+    private final ByteBuffer bytes;
+
+    private InputTensor(OnnxJavaType type, int elements, FloatBuffer floats, ByteBuffer bytes) {
+        this.type = type;
+        this.elements = elements;
+        this.floats = floats;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Whether preprocessing can produce this input element type
+     */
+    public static boolean isSupported(OnnxJavaType type) {
+        return type == OnnxJavaType.FLOAT || type == OnnxJavaType.FLOAT16 || type == OnnxJavaType.UINT8;
+    }
+
+    static InputTensor acquire(TensorBufferPool pool, OnnxJavaType type, int elements) {
+        switch (type) {
+            case FLOAT:
+                return new InputTensor(type, elements, pool.acquire(elements), null);
+            case FLOAT16:
+            case UINT8:
+                return new InputTensor(type, elements, null, pool.acquireBytes(elements * type.size));
+            default:
+                throw new IllegalArgumentException("Unsupported input type: " + type);
+        }
+    }
+
+    void release(TensorBufferPool pool) {
+        if (floats != null) {
+            pool.release(floats);
+        } else {
+            pool.release(bytes);
+        }
+    }
+
+    public OnnxJavaType getType() {
+        return type;
+    }
+
+    public int getElementCount() {
+        return elements;
+    }
+
+    /**
+     * The float buffer of a FLOAT tensor, as taken by the FloatBuffer preprocess and infer overloads
+     */
+    public FloatBuffer floats() {
+        if (floats == null) {
+            throw new IllegalStateException("Not a FLOAT tensor: " + type);
+        }
+        return floats;
+    }
+
+    /**
+     * Writer positioned independently of other writers of this tensor; one per thread
+     */
+    public Writer writer() {
+        switch (type) {
+            case FLOAT16:
+                return new HalfWriter(bytes.asShortBuffer());
+            case UINT8:
+                return new ByteWriter(bytes.duplicate());
+            default:
+                return Writer.of(floats);
+        }
+    }
+
+    OnnxTensor createTensor(OrtEnvironment env, long[] shape) throws OrtException {
+        if (floats != null) {
+            return OnnxTensor.createTensor(env, floats, shape);
+        }
+        return OnnxTensor.createTensor(env, bytes, shape, type);
+    }
+
+    /**
+     * Writes rows of float values at element offsets of an input tensor
+     */
+    public abstract static class Writer {
+
+        /**
+         * Writer over a float32 tensor buffer
+         */
+        public static Writer of(FloatBuffer target) {
+            return new FloatWriter(target.duplicate());
+        }
+
+        /**
+         * Write values[0..length) to elements index..index + length
+         */
+        public abstract void put(int index, float[] values, int length);
+    }
+
+    private static final class FloatWriter extends Writer {
+        private final FloatBuffer out;
+
+        FloatWriter(FloatBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void put(int index, float[] values, int length) {
+            out.position(index);
+            out.put(values, 0, length);
+        }
+    }
+
+    private static final class HalfWriter extends Writer {
+        private final ShortBuffer out;
+        private short[] row = new short[0];
+
+        HalfWriter(ShortBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void put(int index, float[] values, int length) {
+            if (row.length < length) {
+                row = new short[length];
+            }
+            for (int i = 0; i < length; i++) {
+                row[i] = Fp16Conversions.floatToFp16(values[i]);
+            }
+            out.position(index);
+            out.put(row, 0, length);
+        }
+    }
+
+    private static final class ByteWriter extends Writer {
+        private final ByteBuffer out;
+        private byte[] row = new byte[0];
+
+        ByteWriter(ByteBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void put(int index, float[] values, int length) {
+            if (row.length < length) {
+                row = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                int value = (int) (values[i] + 0.5f);
+                row[i] = (byte) (value < 0 ? 0 : value > 255 ? 255 : value);
+            }
+            out.position(index);
+            out.put(row, 0, length);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Placement of one source image inside a model input tensor.
+ * Holds the scale and padding needed to map boxes back to source coordinates.
+ */
+public final class Letterbox {
+
+    // Gray value used by YOLOv8 for padded borders
+    public static final int PAD_VALUE = 114;
+
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final int contentWidth;
+    private final int contentHeight;
+    private final int padX;
+    private final int padY;
+
+    // Source pixels per input pixel
+    private final float inverseScaleX;
+    private final float inverseScaleY;
+
+    private Letterbox(int sourceWidth, int sourceHeight, int inputWidth, int inputHeight,
+                      int contentWidth, int contentHeight, int padX, int padY) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.contentWidth = contentWidth;
+        this.contentHeight = contentHeight;
+        this.padX = padX;
+        this.padY = padY;
+        this.inverseScaleX = (float) sourceWidth / contentWidth;
+        this.inverseScaleY = (float) sourceHeight / contentHeight;
+    }
+
+    /**
+     * Aspect-preserving fit, centered with padding on the short side
+     */
+    public static Letterbox fit(int sourceWidth, int sourceHeight, int inputWidth, int inputHeight) {
+        float scale = Math.min((float) inputWidth / sourceWidth, (float) inputHeight / sourceHeight);
+        int contentWidth = Math.max(1, Math.min(inputWidth, Math.round(sourceWidth * scale)));
+        int contentHeight = Math.max(1, Math.min(inputHeight, Math.round(sourceHeight * scale)));
+        int padX = (inputWidth - contentWidth) / 2;
+        int padY = (inputHeight - contentHeight) / 2;
+        return new Letterbox(sourceWidth, sourceHeight, inputWidth, inputHeight,
+                contentWidth, contentHeight, padX, padY);
+    }
+
+    /**
+     * Stretch to the full input size without padding (legacy detect behaviour)
+     */
+    public static Letterbox stretch(int sourceWidth, int sourceHeight, int inputWidth, int inputHeight) {
+        return new Letterbox(sourceWidth, sourceHeight, inputWidth, inputHeight,
+                inputWidth, inputHeight, 0, 0);
+    }
+
+    /**
+     * Map an x coordinate in input space back to source space
+     */
+    public float toSourceX(float x) {
+        return (x - padX) * inverseScaleX;
+    }
+
+    /**
+     * Map a y coordinate in input space back to source space
+     */
+    public float toSourceY(float y) {
+        return (y - padY) * inverseScaleY;
+    }
+
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    public int getContentWidth() {
+        return contentWidth;
+    }
+
+    public int getContentHeight() {
+        return contentHeight;
+    }
+
+    public int getPadX() {
+        return padX;
+    }
+
+    public int getPadY() {
+        return padY;
+    }
+
+    /**
+     * Input pixels per source pixel along x
+     */
+    public float getScaleX() {
+        return (float) contentWidth / sourceWidth;
+    }
+
+    /**
+     * Input pixels per source pixel along y
+     */
+    public float getScaleY() {
+        return (float) contentHeight / sourceHeight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Letterbox[%dx%d -> %dx%d, content=%dx%d, pad=(%d,%d)]",
+                sourceWidth, sourceHeight, inputWidth, inputHeight, contentWidth, contentHeight, padX, padY);
+    }
+}
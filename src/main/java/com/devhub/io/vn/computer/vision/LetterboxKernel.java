@@ -0,0 +1,154 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Arrays;
+
+/**
+ * Fused resize + pad + channel split + normalize in a single pass.
+ * Samples the source rows directly and writes NCHW rows through the tensor
+ * writer, so no intermediate resized BufferedImage is created.
+ */
+final class LetterboxKernel {
+
+    private LetterboxKernel() {
+    }
+
+    /**
+     * Fill one image worth of NCHW values at offset according to the letterbox geometry
+     */
+    static void fill(PixelRowReader source, Letterbox letterbox, boolean bilinear,
+                     float[] mean, float[] std, InputTensor.Writer out, int offset) {
+        final int channels = 3;
+        int srcWidth = source.getWidth();
+        int srcHeight = source.getHeight();
+        int inputWidth = letterbox.getInputWidth();
+        int inputHeight = letterbox.getInputHeight();
+        int contentWidth = letterbox.getContentWidth();
+        int contentHeight = letterbox.getContentHeight();
+        int padX = letterbox.getPadX();
+        int padY = letterbox.getPadY();
+        int planeSize = inputWidth * inputHeight;
+
+        // normalized = v * gain + bias, with v in 0..255
+        float[] gain = new float[channels];
+        float[] bias = new float[channels];
+        float[] padValue = new float[channels];
+        for (int c = 0; c < channels; c++) {
+            gain[c] = 1.0f / (255.0f * std[c]);
+            bias[c] = -mean[c] / std[c];
+            padValue[c] = (Letterbox.PAD_VALUE / 255.0f - mean[c]) / std[c];
+        }
+
+        // Column sampling table: only the sampled source columns are ever read.
+        // Bilinear gathers the left/right neighbours interleaved as [x0, x1, x0, x1, ...]
+        float scaleX = (float) srcWidth / contentWidth;
+        float scaleY = (float) srcHeight / contentHeight;
+        int taps = bilinear ? 2 : 1;
+        int samples = contentWidth * taps;
+        int[] columns = new int[samples];
+        float[] wx = new float[contentWidth];
+        for (int x = 0; x < contentWidth; x++) {
+            if (bilinear) {
+                float sx = Math.max(0.0f, (x + 0.5f) * scaleX - 0.5f);
+                int ix = Math.min((int) sx, srcWidth - 1);
+                columns[2 * x] = ix;
+                columns[2 * x + 1] = Math.min(ix + 1, srcWidth - 1);
+                wx[x] = sx - ix;
+            } else {
+                columns[x] = Math.min((int) ((x + 0.5f) * scaleX), srcWidth - 1);
+            }
+        }
+
+        float[][] rows = new float[channels][inputWidth];
+        for (int c = 0; c < channels; c++) {
+            Arrays.fill(rows[c], padValue[c]);
+        }
+
+        // Top and bottom padding rows
+        for (int y = 0; y < inputHeight; y++) {
+            if (y >= padY && y < padY + contentHeight) {
+                continue;
+            }
+            for (int c = 0; c < channels; c++) {
+                out.put(offset + c * planeSize + y * inputWidth, rows[c], inputWidth);
+            }
+        }
+
+        // Two cached sampled rows; the source row index only moves forward
+        int[] rowA = new int[samples];
+        int[] rowB = new int[samples];
+        int rowAIndex = -1;
+        int rowBIndex = -1;
+
+        for (int y = 0; y < contentHeight; y++) {
+            int y0;
+            int y1;
+            float wy;
+            if (bilinear) {
+                float sy = Math.max(0.0f, (y + 0.5f) * scaleY - 0.5f);
+                y0 = Math.min((int) sy, srcHeight - 1);
+                y1 = Math.min(y0 + 1, srcHeight - 1);
+                wy = sy - y0;
+            } else {
+                y0 = Math.min((int) ((y + 0.5f) * scaleY), srcHeight - 1);
+                y1 = y0;
+                wy = 0.0f;
+            }
+
+            if (rowAIndex != y0) {
+                if (rowBIndex == y0) {
+                    int[] swap = rowA;
+                    rowA = rowB;
+                    rowB = swap;
+                    rowBIndex = -1;
+                } else {
+                    source.readColumns(y0, columns, samples, rowA);
+                }
+                rowAIndex = y0;
+            }
+            if (bilinear && y1 != y0 && rowBIndex != y1) {
+                source.readColumns(y1, columns, samples, rowB);
+                rowBIndex = y1;
+            }
+
+            float[] r = rows[0];
+            float[] g = rows[1];
+            float[] b = rows[2];
+            if (bilinear) {
+                int[] top = rowA;
+                int[] bottom = y1 != y0 ? rowB : rowA;
+                for (int x = 0; x < contentWidth; x++) {
+                    int p00 = top[2 * x];
+                    int p01 = top[2 * x + 1];
+                    int p10 = bottom[2 * x];
+                    int p11 = bottom[2 * x + 1];
+                    float fx = wx[x];
+                    float fy = wy;
+                    float w00 = (1.0f - fx) * (1.0f - fy);
+                    float w01 = fx * (1.0f - fy);
+                    float w10 = (1.0f - fx) * fy;
+                    float w11 = fx * fy;
+                    int dx = padX + x;
+                    r[dx] = (((p00 >> 16) & 0xFF) * w00 + ((p01 >> 16) & 0xFF) * w01
+                            + ((p10 >> 16) & 0xFF) * w10 + ((p11 >> 16) & 0xFF) * w11) * gain[0] + bias[0];
+                    g[dx] = (((p00 >> 8) & 0xFF) * w00 + ((p01 >> 8) & 0xFF) * w01
+                            + ((p10 >> 8) & 0xFF) * w10 + ((p11 >> 8) & 0xFF) * w11) * gain[1] + bias[1];
+                    b[dx] = ((p00 & 0xFF) * w00 + (p01 & 0xFF) * w01
+                            + (p10 & 0xFF) * w10 + (p11 & 0xFF) * w11) * gain[2] + bias[2];
+                }
+            } else {
+                for (int x = 0; x < contentWidth; x++) {
+                    int p = rowA[x];
+                    int dx = padX + x;
+                    r[dx] = ((p >> 16) & 0xFF) * gain[0] + bias[0];
+                    g[dx] = ((p >> 8) & 0xFF) * gain[1] + bias[1];
+                    b[dx] = (p & 0xFF) * gain[2] + bias[2];
+                }
+            }
+
+            int dy = padY + y;
+            for (int c = 0; c < channels; c++) {
+                out.put(offset + c * planeSize + dy * inputWidth, rows[c], inputWidth);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.io.PrintStream;
+
+/**
+ * Prints a summary line per image, and optionally every detection, in the format
+ * detect used to log unconditionally. Register it to get the old stdout output back.
+ */
+public final class LoggingDetectionListener implements DetectionListener {
+
+    private final PrintStream out;
+    private final boolean logDetections;
+
+    public LoggingDetectionListener() {
+        this(System.out, true);
+    }
+
+    public LoggingDetectionListener(PrintStream out, boolean logDetections) {
+        this.out = out;
+        this.logDetections = logDetections;
+    }
+
+    @Override
+    public void onFrame(FrameMetrics metrics, DetectionBatch detections) {
+        StringBuilder line = new StringBuilder(metrics.toString());
+        if (logDetections) {
+            DetectionBatch.Cursor cursor = detections.cursor();
+            while (cursor.next()) {
+                line.append(System.lineSeparator())
+                        .append("  ").append(cursor.className()).append(" (class ").append(cursor.classId())
+                        .append("): confidence=").append(String.format("%.3f", cursor.confidence()))
+                        .append(", bbox=[").append((int) cursor.x1()).append(',').append((int) cursor.y1())
+                        .append(',').append((int) cursor.x2()).append(',').append((int) cursor.y2()).append(']');
+            }
+        }
+        // One println per frame so concurrent frames do not interleave
+        out.println(line);
+    }
+}
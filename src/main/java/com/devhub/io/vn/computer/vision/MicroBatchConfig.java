@@ -0,0 +1,92 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Limits of a MicroBatcher.
+ *
+ * A batch is dispatched when it holds maxBatchSize requests or the first request has
+ * waited maxWaitMicros. With adaptive sizing the batcher aims below those limits: it
+ * only waits for as many requests as are expected to arrive during one inference, so a
+ * lightly loaded detector adds no waiting and a busy one fills batches up to the cap.
+ */
+public class MicroBatchConfig {
+
+    private int maxBatchSize = 8;
+    private long maxWaitMicros = 5000;
+    private boolean adaptive = true;
+    private int queueCapacity = 256;
+    private int inferenceThreads = 0;
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Images per inference; the model needs a dynamic batch dimension above 1
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be >= 1: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+
+    /**
+     * Longest time the first request of a batch waits for more requests
+     */
+    public void setMaxWaitMicros(long maxWaitMicros) {
+        if (maxWaitMicros < 0) {
+            throw new IllegalArgumentException("maxWaitMicros must be >= 0: " + maxWaitMicros);
+        }
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Size batches from the observed arrival rate and inference time (default on);
+     * off always waits for maxBatchSize requests or maxWaitMicros
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Requests waiting to be batched; submits beyond it fail with RejectedExecutionException
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be >= 1: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getInferenceThreads() {
+        return inferenceThreads;
+    }
+
+    /**
+     * Batches running at once; 0 uses one per pooled session
+     */
+    public void setInferenceThreads(int inferenceThreads) {
+        if (inferenceThreads < 0) {
+            throw new IllegalArgumentException("inferenceThreads must be >= 0: " + inferenceThreads);
+        }
+        this.inferenceThreads = inferenceThreads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MicroBatchConfig[maxBatch=%d, maxWait=%dus, adaptive=%b, queue=%d, inference=%d]",
+                maxBatchSize, maxWaitMicros, adaptive, queueCapacity, inferenceThreads);
+    }
+}
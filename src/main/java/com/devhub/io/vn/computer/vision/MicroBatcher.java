@@ -0,0 +1,338 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.Detection;
+
+/**
+ * Collects concurrent single-image requests into batched inferences.
+ *
+ * A dispatcher thread takes queued requests into a batch until it holds the target size
+ * or the first request has waited long enough, then hands it to an inference worker.
+ * Requests whose images letterbox to different input shapes are run as separate
+ * batches, so every caller gets exactly what detect would have returned.
+ *
+ * The detector is not owned: close the batcher before the detector.
+ */
+public final class MicroBatcher implements AutoCloseable {
+
+    private static final AtomicInteger BATCHER_IDS = new AtomicInteger();
+
+    private final ComputerVisionAbstract detector;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final boolean adaptive;
+    private final BlockingQueue<Request> queue;
+    private final Semaphore freeWorkers;
+    private final ExecutorService workers;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private final LatencyHistogram batchFill = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    // Adaptive sizing: arrival gap is only touched by the dispatcher, inference time by workers
+    private double arrivalGapNanos;
+    private long lastArrivalNanos;
+    private volatile double inferenceNanos;
+    private volatile int targetBatchSize = 1;
+
+    public MicroBatcher(ComputerVisionAbstract detector) {
+        this(detector, new MicroBatchConfig());
+    }
+
+    public MicroBatcher(ComputerVisionAbstract detector, MicroBatchConfig config) {
+        this.detector = detector;
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(config.getMaxWaitMicros());
+        this.adaptive = config.isAdaptive();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        int threads = config.getInferenceThreads() > 0
+                ? config.getInferenceThreads() : detector.getSessionPool().getSize();
+        this.freeWorkers = new Semaphore(threads);
+        int id = BATCHER_IDS.incrementAndGet();
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "micro-batch-" + id + "-worker-" + workerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "micro-batch-" + id + "-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queue an image for the next batch. Fails with RejectedExecutionException when the
+     * queue is full or the batcher is closed.
+     */
+    public CompletableFuture<Detection[]> submit(BufferedImage image) {
+        Request request = new Request(image, detector.letterboxFor(image.getWidth(), image.getHeight()));
+        if (closed || !queue.offer(request)) {
+            return reject(request, closed ? "MicroBatcher is closed" : "Micro-batch queue full");
+        }
+        // Closed between the check and the offer: close may already have drained the queue
+        if (closed && queue.remove(request)) {
+            return reject(request, "MicroBatcher is closed");
+        }
+        return request.future;
+    }
+
+    /**
+     * Blocking submit, for request threads that want detect semantics
+     */
+    public Detection[] detect(BufferedImage image) {
+        try {
+            return submit(image).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Detection failed", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Detection[]> reject(Request request, String message) {
+        rejected.increment();
+        request.future.completeExceptionally(new RejectedExecutionException(message));
+        return request.future;
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                // Wait for a worker first: requests arriving meanwhile make the next batch larger
+                freeWorkers.acquire();
+                Request first = queue.take();
+                observeArrival(first);
+                batch.add(first);
+
+                int target = targetBatchSize();
+                long deadline = first.submittedNanos + waitNanos(target);
+                while (batch.size() < maxBatchSize) {
+                    // Requests already queued always join; only wait while below the target
+                    Request next = queue.poll();
+                    if (next == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= target || remaining <= 0) {
+                            break;
+                        }
+                        next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                    }
+                    observeArrival(next);
+                    batch.add(next);
+                }
+
+                List<Request> dispatched = batch;
+                batch = new ArrayList<>(maxBatchSize);
+                try {
+                    workers.execute(() -> runBatch(dispatched));
+                } catch (RejectedExecutionException e) {
+                    freeWorkers.release();
+                    fail(dispatched, new CancellationException("MicroBatcher closed"));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by close
+        } finally {
+            fail(batch, new CancellationException("MicroBatcher closed"));
+        }
+    }
+
+    private void observeArrival(Request request) {
+        if (lastArrivalNanos != 0) {
+            long gap = Math.max(0, request.submittedNanos - lastArrivalNanos);
+            arrivalGapNanos = arrivalGapNanos == 0 ? gap : 0.8 * arrivalGapNanos + 0.2 * gap;
+        }
+        lastArrivalNanos = request.submittedNanos;
+    }
+
+    /**
+     * Requests expected to arrive during one inference (Little's law), capped at maxBatchSize.
+     * Rounded down so a closed-loop caller, whose next request follows the last result, never waits.
+     */
+    private int targetBatchSize() {
+        int target = maxBatchSize;
+        if (adaptive) {
+            double latency = inferenceNanos;
+            target = arrivalGapNanos <= 0 || latency <= 0
+                    ? 1 : (int) Math.max(1, Math.min(maxBatchSize, Math.floor(latency / arrivalGapNanos)));
+        }
+        targetBatchSize = target;
+        return target;
+    }
+
+    /**
+     * How long the first request of a batch may wait for the rest of the target
+     */
+    private long waitNanos(int target) {
+        if (!adaptive) {
+            return maxWaitNanos;
+        }
+        return Math.min(maxWaitNanos, (long) (arrivalGapNanos * (target - 1)));
+    }
+
+    private void runBatch(List<Request> batch) {
+        try {
+            // One inference per input shape, in arrival order
+            Map<Long, List<Request>> groups = new LinkedHashMap<>();
+            for (Request request : batch) {
+                if (request.future.isDone()) {
+                    continue;
+                }
+                long shape = ((long) request.letterbox.getInputWidth() << 32) | request.letterbox.getInputHeight();
+                List<Request> group = groups.get(shape);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(shape, group);
+                }
+                group.add(request);
+            }
+            for (List<Request> group : groups.values()) {
+                runGroup(group);
+            }
+        } finally {
+            freeWorkers.release();
+        }
+    }
+
+    private void runGroup(List<Request> group) {
+        int size = group.size();
+        List<BufferedImage> images = new ArrayList<>(size);
+        Letterbox[] letterboxes = new Letterbox[size];
+        DetectionBatch[] results = new DetectionBatch[size];
+        long startTime = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            Request request = group.get(i);
+            queueWait.record(startTime - request.submittedNanos);
+            images.add(request.image);
+            letterboxes[i] = request.letterbox;
+            results[i] = new DetectionBatch();
+        }
+
+        try {
+            detector.detectBatch(images, letterboxes, results);
+        } catch (Exception e) {
+            fail(group, new RuntimeException("Batched detection failed", e));
+            return;
+        }
+        long elapsed = System.nanoTime() - startTime;
+        batchFill.record(size);
+        batchLatency.record(elapsed);
+        synchronized (this) {
+            inferenceNanos = inferenceNanos == 0 ? elapsed : 0.8 * inferenceNanos + 0.2 * elapsed;
+        }
+
+        for (int i = 0; i < size; i++) {
+            group.get(i).future.complete(results[i].toDetections());
+        }
+    }
+
+    private static void fail(List<Request> requests, Throwable cause) {
+        for (Request request : requests) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Images per inference
+     */
+    public LatencyHistogram getBatchFill() {
+        return batchFill;
+    }
+
+    /**
+     * Nanoseconds from submit to the start of the request's inference
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Nanoseconds per batched inference, preprocessing and decoding included
+     */
+    public LatencyHistogram getBatchLatency() {
+        return batchLatency;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Batch size the dispatcher last aimed for
+     */
+    public int getTargetBatchSize() {
+        return targetBatchSize;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stop batching: queued requests are cancelled, running batches complete
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        fail(pending, new CancellationException("MicroBatcher closed"));
+
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MicroBatcher[queue=%d, target=%d/%d, fill p50=%d, queueWait p99=%.2fms, rejected=%d]",
+                getQueueDepth(), targetBatchSize, maxBatchSize, batchFill.getPercentile(0.5),
+                queueWait.getPercentile(0.99) / 1e6, getRejectedCount());
+    }
+
+    private static final class Request {
+        final BufferedImage image;
+        final Letterbox letterbox;
+        final CompletableFuture<Detection[]> future = new CompletableFuture<>();
+        final long submittedNanos = System.nanoTime();
+
+        Request(BufferedImage image, Letterbox letterbox) {
+            this.image = image;
+            this.letterbox = letterbox;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+/**
+ * JPEG frames split out of an MJPEG byte stream by walking the JPEG marker structure,
+ * so multipart boundaries and headers between frames are skipped and embedded
+ * thumbnails do not end a frame early.
+ */
+final class MjpegFrameSource implements FrameSource {
+
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+
+    private final InputStream in;
+    private byte[] frame = new byte[1 << 16];
+    private int length;
+
+    MjpegFrameSource(InputStream stream) {
+        this.in = stream instanceof BufferedInputStream ? stream : new BufferedInputStream(stream, 1 << 16);
+    }
+
+    @Override
+    public BufferedImage next(BufferedImage reusable) throws IOException {
+        try {
+            if (!readFrame()) {
+                return null;
+            }
+        } catch (EOFException e) {
+            // Truncated last frame
+            return null;
+        }
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(frame, 0, length))) {
+            BufferedImage image = ImageDecoder.read(input, reusable);
+            if (image == null) {
+                throw new IOException("Undecodable MJPEG frame");
+            }
+            return image;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Copy the next SOI..EOI range into frame; false at a clean end of stream
+     */
+    private boolean readFrame() throws IOException {
+        int previous = -1;
+        int b;
+        while (true) {
+            b = in.read();
+            if (b < 0) {
+                return false;
+            }
+            if (previous == 0xFF && b == SOI) {
+                break;
+            }
+            previous = b;
+        }
+        length = 0;
+        append(0xFF);
+        append(SOI);
+
+        int pendingMarker = -1;
+        while (true) {
+            int marker = pendingMarker;
+            pendingMarker = -1;
+            if (marker < 0) {
+                if (readByte() != 0xFF) {
+                    throw new IOException("Malformed JPEG in MJPEG stream");
+                }
+                do {
+                    marker = readByte();
+                } while (marker == 0xFF);
+            }
+            append(0xFF);
+            append(marker);
+
+            if (marker == EOI) {
+                return true;
+            }
+            if ((marker >= 0xD0 && marker <= 0xD7) || marker == 0x01) {
+                // Standalone markers carry no length
+                continue;
+            }
+
+            int high = readByte();
+            int low = readByte();
+            append(high);
+            append(low);
+            int segmentLength = (high << 8) | low;
+            for (int i = 2; i < segmentLength; i++) {
+                append(readByte());
+            }
+
+            if (marker == SOS) {
+                pendingMarker = copyEntropyData();
+            }
+        }
+    }
+
+    /**
+     * Copy entropy-coded data up to the next real marker and return that marker
+     */
+    private int copyEntropyData() throws IOException {
+        while (true) {
+            int b = readByte();
+            if (b != 0xFF) {
+                append(b);
+                continue;
+            }
+            int next;
+            do {
+                next = readByte();
+            } while (next == 0xFF);
+            if (next == 0x00 || (next >= 0xD0 && next <= 0xD7)) {
+                // Stuffed byte or restart marker inside the scan
+                append(0xFF);
+                append(next);
+            } else {
+                return next;
+            }
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private void append(int b) {
+        if (length == frame.length) {
+            frame = Arrays.copyOf(frame, length * 2);
+        }
+        frame[length++] = (byte) b;
+    }
+}
@@ -0,0 +1,249 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+
+/**
+ * Process-wide cache of loaded models. Session pools are shared between all users
+ * of the same model file and session options and are reference counted: the
+ * native sessions are freed when the last Handle is closed. A model file replaced
+ * in place (new size or modification time) is loaded again rather than shared.
+ *
+ * The OrtEnvironment is a process singleton and is never closed here.
+ */
+public final class ModelRegistry {
+
+    private static final ModelRegistry DEFAULT = new ModelRegistry();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Registry shared by every ComputerVisionAbstract that is not given its own
+     */
+    public static ModelRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get a handle on the model, loading it unless a live entry with the same file and options exists
+     */
+    public Handle acquire(String modelPath, SessionPoolConfig config) throws OrtException {
+        String key = key(modelPath, config);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key, modelPath, config);
+                entries.put(key, entry);
+            }
+            entry.references++;
+        }
+        try {
+            entry.load();
+        } catch (OrtException | RuntimeException e) {
+            release(entry);
+            throw e;
+        }
+        return new Handle(entry);
+    }
+
+    /**
+     * Snapshot of every loaded model
+     */
+    public List<ModelStats> getModels() {
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        List<ModelStats> stats = new ArrayList<>(snapshot.size());
+        for (Entry entry : snapshot) {
+            stats.add(entry.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Estimated native memory held by all loaded models, in bytes
+     */
+    public long getEstimatedNativeBytes() {
+        long total = 0;
+        for (ModelStats stats : getModels()) {
+            total += stats.getEstimatedNativeBytes();
+        }
+        return total;
+    }
+
+    private void release(Entry entry) {
+        boolean last;
+        synchronized (entries) {
+            last = --entry.references == 0;
+            if (last) {
+                entries.remove(entry.key);
+            }
+        }
+        if (last) {
+            entry.close();
+        }
+    }
+
+    private static String key(String modelPath, SessionPoolConfig config) {
+        File file = new File(modelPath);
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (IOException e) {
+            path = file.getAbsolutePath();
+        }
+        // Size and mtime, like ResultCache's model version, so a replaced file is not served stale sessions
+        return path + "|" + file.length() + "|" + file.lastModified() + "|" + config.getPoolSize() + "|" + config.getIntraOpThreads() + "|" + config.getInterOpThreads()
+                + "|" + config.getExecutionMode() + "|" + config.getCheckoutPolicy() + "|" + config.getCheckoutTimeoutMs()
+                + "|" + config.getOptimizationLevel() + "|" + config.getOptimizedModelCacheDir();
+    }
+
+    /**
+     * Reference to a shared model; close exactly once when done
+     */
+    public final class Handle implements AutoCloseable {
+        private final Entry entry;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        public SessionPool getSessionPool() {
+            return entry.pool;
+        }
+
+        public ModelStats getStats() {
+            return entry.stats();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Load time and memory figures of one loaded model
+     */
+    public static final class ModelStats {
+        private final String modelPath;
+        private final int sessions;
+        private final int references;
+        private final long loadTimeMs;
+        private final long modelFileBytes;
+        private final boolean optimizedModelCacheHit;
+
+        ModelStats(String modelPath, int sessions, int references, long loadTimeMs, long modelFileBytes,
+                   boolean optimizedModelCacheHit) {
+            this.modelPath = modelPath;
+            this.sessions = sessions;
+            this.references = references;
+            this.loadTimeMs = loadTimeMs;
+            this.modelFileBytes = modelFileBytes;
+            this.optimizedModelCacheHit = optimizedModelCacheHit;
+        }
+
+        public String getModelPath() {
+            return modelPath;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        /**
+         * Open handles sharing this model
+         */
+        public int getReferences() {
+            return references;
+        }
+
+        /**
+         * Wall time to create every session of the pool
+         */
+        public long getLoadTimeMs() {
+            return loadTimeMs;
+        }
+
+        public long getModelFileBytes() {
+            return modelFileBytes;
+        }
+
+        /**
+         * True when the sessions were loaded from a cached optimized graph
+         */
+        public boolean isOptimizedModelCacheHit() {
+            return optimizedModelCacheHit;
+        }
+
+        /**
+         * Lower bound on native memory: each session keeps its own copy of the weights.
+         * Activation arenas come on top and depend on the input shapes used.
+         */
+        public long getEstimatedNativeBytes() {
+            return modelFileBytes * sessions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ModelStats[%s, sessions=%d, refs=%d, load=%dms%s, native~%.1fMB]",
+                    modelPath, sessions, references, loadTimeMs, optimizedModelCacheHit ? " (cached graph)" : "",
+                    getEstimatedNativeBytes() / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * One shared model; references is only changed under the registry's entries lock
+     */
+    private static final class Entry {
+        final String key;
+        final String modelPath;
+        final SessionPoolConfig config;
+        volatile int references;
+        volatile SessionPool pool;
+        volatile long loadTimeMs;
+        volatile long modelFileBytes;
+
+        Entry(String key, String modelPath, SessionPoolConfig config) {
+            this.key = key;
+            this.modelPath = modelPath;
+            this.config = config;
+        }
+
+        synchronized void load() throws OrtException {
+            if (pool != null) {
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            pool = new SessionPool(OrtEnvironment.getEnvironment(), modelPath, config);
+            loadTimeMs = System.currentTimeMillis() - startTime;
+            modelFileBytes = new File(modelPath).length();
+        }
+
+        synchronized void close() {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+
+        ModelStats stats() {
+            SessionPool current = pool;
+            return new ModelStats(modelPath, current != null ? current.getSize() : 0, references, loadTimeMs, modelFileBytes,
+                    current != null && current.isOptimizedModelCacheHit());
+        }
+    }
+}
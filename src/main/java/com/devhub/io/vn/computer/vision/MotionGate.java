@@ -0,0 +1,222 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Skips inference on frames of a fixed camera that barely changed.
+ *
+ * Each frame is reduced to a small grid of mean luminance values, sampled from a
+ * few rows per grid cell, and compared with the grid of the last inferred frame.
+ * Comparing against the last inferred frame rather than the previous one means slow
+ * drift still triggers inference once it adds up. Skipped frames reuse the last
+ * detections, and inference is forced after maxSkippedFrames frames in a row.
+ *
+ * One gate per stream; shouldInfer must be called by one thread at a time, the
+ * counters may be read from any thread.
+ */
+public final class MotionGate {
+
+    // Rows sampled per grid cell
+    private static final int SAMPLE_ROWS = 4;
+
+    private final int maxGridWidth;
+    private final int pixelThreshold;
+    private final double motionThreshold;
+    private final int maxSkippedFrames;
+
+    // Comparison state, only touched by the thread calling shouldInfer
+    private int frameWidth;
+    private int frameHeight;
+    private int gridWidth;
+    private int gridHeight;
+    private int[] columnCells;
+    private int[] row;
+    private long[] sums;
+    private int[] counts;
+    private int[] reference;
+    private int[] current;
+    private boolean hasReference;
+    private int skippedInARow;
+
+    private final DetectionBatch lastDetections = new DetectionBatch();
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LatencyHistogram gateTime = new LatencyHistogram();
+    private final LatencyHistogram inferenceTime = new LatencyHistogram();
+    private volatile double lastMotion;
+
+    public MotionGate() {
+        this(new MotionGateConfig());
+    }
+
+    public MotionGate(MotionGateConfig config) {
+        this.maxGridWidth = config.getGridWidth();
+        this.pixelThreshold = config.getPixelThreshold();
+        this.motionThreshold = config.getMotionThreshold();
+        this.maxSkippedFrames = config.getMaxSkippedFrames();
+    }
+
+    /**
+     * Decide whether the frame needs inference: the first frame, a change of frame size,
+     * motion above the threshold or too many skipped frames in a row. Otherwise the frame
+     * is counted as skipped.
+     */
+    public boolean shouldInfer(BufferedImage frame) {
+        long startTime = System.nanoTime();
+        frames.increment();
+        boolean infer;
+        if (!hasReference || frame.getWidth() != frameWidth || frame.getHeight() != frameHeight) {
+            resizeGrid(frame.getWidth(), frame.getHeight());
+            sampleGrid(frame, reference);
+            hasReference = true;
+            lastMotion = 1;
+            infer = true;
+        } else {
+            sampleGrid(frame, current);
+            double motion = changedFraction();
+            lastMotion = motion;
+            infer = motion > motionThreshold || skippedInARow >= maxSkippedFrames;
+            if (infer) {
+                int[] previous = reference;
+                reference = current;
+                current = previous;
+            }
+        }
+
+        if (infer) {
+            skippedInARow = 0;
+        } else {
+            skippedInARow++;
+            skipped.increment();
+        }
+        gateTime.record(System.nanoTime() - startTime);
+        return infer;
+    }
+
+    /**
+     * Forget the reference frame; the next frame is always inferred
+     */
+    public void reset() {
+        hasReference = false;
+        skippedInARow = 0;
+        lastDetections.clear();
+    }
+
+    /**
+     * Keep the detections of an inferred frame, with the time its inference took
+     */
+    void remember(DetectionBatch detections, long inferenceNanos) {
+        lastDetections.copyFrom(detections);
+        if (inferenceNanos > 0) {
+            inferenceTime.record(inferenceNanos);
+        }
+    }
+
+    /**
+     * Copy the last inferred detections into the result of a skipped frame
+     */
+    void recall(DetectionBatch result) {
+        result.copyFrom(lastDetections);
+    }
+
+    private void resizeGrid(int width, int height) {
+        frameWidth = width;
+        frameHeight = height;
+        gridWidth = Math.min(maxGridWidth, width);
+        gridHeight = Math.max(1, Math.min(height, Math.round((float) gridWidth * height / width)));
+        columnCells = new int[width];
+        for (int x = 0; x < width; x++) {
+            columnCells[x] = (int) ((long) x * gridWidth / width);
+        }
+        row = new int[width];
+        sums = new long[gridWidth * gridHeight];
+        counts = new int[gridWidth * gridHeight];
+        reference = new int[gridWidth * gridHeight];
+        current = new int[gridWidth * gridHeight];
+    }
+
+    /**
+     * Mean luminance per grid cell from every rowStep-th row
+     */
+    private void sampleGrid(BufferedImage frame, int[] grid) {
+        Arrays.fill(sums, 0);
+        Arrays.fill(counts, 0);
+        PixelRowReader reader = PixelRowReader.of(frame);
+        int rowStep = Math.max(1, frameHeight / (gridHeight * SAMPLE_ROWS));
+        for (int y = rowStep / 2; y < frameHeight; y += rowStep) {
+            reader.readRow(y, row);
+            int base = (int) ((long) y * gridHeight / frameHeight) * gridWidth;
+            for (int x = 0; x < frameWidth; x++) {
+                int rgb = row[x];
+                int luma = (((rgb >> 16) & 0xFF) * 77 + ((rgb >> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+                int cell = base + columnCells[x];
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = counts[i] == 0 ? 0 : (int) (sums[i] / counts[i]);
+        }
+    }
+
+    private double changedFraction() {
+        int changed = 0;
+        for (int i = 0; i < reference.length; i++) {
+            if (Math.abs(current[i] - reference[i]) > pixelThreshold) {
+                changed++;
+            }
+        }
+        return (double) changed / reference.length;
+    }
+
+    public long getFrameCount() {
+        return frames.sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    public double getSkipRatio() {
+        long frameCount = frames.sum();
+        return frameCount == 0 ? 0 : (double) skipped.sum() / frameCount;
+    }
+
+    /**
+     * Fraction of grid cells that changed in the last compared frame
+     */
+    public double getLastMotion() {
+        return lastMotion;
+    }
+
+    /**
+     * Nanoseconds spent sampling and comparing each frame
+     */
+    public LatencyHistogram getGateTime() {
+        return gateTime;
+    }
+
+    /**
+     * Nanoseconds per inferred frame
+     */
+    public LatencyHistogram getInferenceTime() {
+        return inferenceTime;
+    }
+
+    /**
+     * Inference time saved by skipping: skipped frames times the mean inferred frame time
+     */
+    public double getSavedInferenceMs() {
+        return skipped.sum() * inferenceTime.getMean() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MotionGate[frames=%d, skipped=%d (%.1f%%), saved=%.1fms, gate mean=%.3fms, lastMotion=%.4f]",
+                getFrameCount(), getSkippedCount(), getSkipRatio() * 100, getSavedInferenceMs(),
+                gateTime.getMean() / 1e6, lastMotion);
+    }
+}
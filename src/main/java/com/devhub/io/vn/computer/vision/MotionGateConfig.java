@@ -0,0 +1,78 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Thresholds of a MotionGate.
+ *
+ * Frames are compared on a small luminance grid: a cell counts as changed when its mean
+ * luminance moved by more than pixelThreshold, and inference runs when more than
+ * motionThreshold of the cells changed since the last inferred frame.
+ */
+public class MotionGateConfig {
+
+    private int gridWidth = 64;
+    private int pixelThreshold = 16;
+    private double motionThreshold = 0.002;
+    private int maxSkippedFrames = 15;
+
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Cells across the comparison grid; the height follows the frame's aspect ratio
+     */
+    public void setGridWidth(int gridWidth) {
+        if (gridWidth < 1) {
+            throw new IllegalArgumentException("gridWidth must be >= 1: " + gridWidth);
+        }
+        this.gridWidth = gridWidth;
+    }
+
+    public int getPixelThreshold() {
+        return pixelThreshold;
+    }
+
+    /**
+     * Luminance change (0-255) above which a cell counts as changed; filters sensor noise
+     */
+    public void setPixelThreshold(int pixelThreshold) {
+        if (pixelThreshold < 0 || pixelThreshold > 255) {
+            throw new IllegalArgumentException("pixelThreshold must be in [0, 255]: " + pixelThreshold);
+        }
+        this.pixelThreshold = pixelThreshold;
+    }
+
+    public double getMotionThreshold() {
+        return motionThreshold;
+    }
+
+    /**
+     * Fraction of changed cells at or below which a frame is skipped; 0 only skips identical frames
+     */
+    public void setMotionThreshold(double motionThreshold) {
+        if (motionThreshold < 0 || motionThreshold >= 1) {
+            throw new IllegalArgumentException("motionThreshold must be in [0, 1): " + motionThreshold);
+        }
+        this.motionThreshold = motionThreshold;
+    }
+
+    public int getMaxSkippedFrames() {
+        return maxSkippedFrames;
+    }
+
+    /**
+     * Consecutive frames that may be skipped before inference is forced; 0 never skips
+     */
+    public void setMaxSkippedFrames(int maxSkippedFrames) {
+        if (maxSkippedFrames < 0) {
+            throw new IllegalArgumentException("maxSkippedFrames must be >= 0: " + maxSkippedFrames);
+        }
+        this.maxSkippedFrames = maxSkippedFrames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MotionGateConfig[grid=%d, pixelThreshold=%d, motionThreshold=%.4f, maxSkipped=%d]",
+                gridWidth, pixelThreshold, motionThreshold, maxSkippedFrames);
+    }
+}
@@ -0,0 +1,429 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Greedy Non-Maximum Suppression over primitive box arrays.
+ *
+ * Candidates are visited in descending score order (ties by index, like a stable
+ * sort) and a candidate is kept unless a previously kept box overlaps it with
+ * IoU above the threshold. Kept boxes are indexed in a uniform grid so each
+ * candidate is only compared with kept boxes in the cells it touches; the result
+ * is identical to the pairwise loop.
+ *
+ * In class-aware mode boxes of different classes never suppress each other
+ * (the semantics of the batched class-offset trick, without shifting coordinates),
+ * and classes are processed in parallel with fork/join for large candidate sets.
+ *
+ * Work arrays and grids live in a Scratch that callers can keep between frames:
+ * DetectionBatch holds one in its CandidateBuffer, so once the arrays have grown a
+ * call allocates only the engine and its class tasks.
+ */
+public final class NmsEngine {
+
+    // Below this many candidates the pairwise loop is cheaper than building a grid
+    private static final int GRID_MIN_CANDIDATES = 64;
+
+    // Total candidates above which classes are processed in parallel
+    private static final int PARALLEL_MIN_CANDIDATES = 4096;
+
+    // Kept boxes touching more cells than this go to an always-checked overflow list
+    private static final int MAX_CELLS_PER_BOX = 16;
+
+    private final float iouThreshold;
+    private final boolean classAware;
+
+    public NmsEngine(float iouThreshold, boolean classAware) {
+        this.iouThreshold = iouThreshold;
+        this.classAware = classAware;
+    }
+
+    /**
+     * Run NMS over the first count boxes.
+     *
+     * @return indices of kept boxes in descending score order
+     */
+    public int[] run(float[] x1, float[] y1, float[] x2, float[] y2, float[] scores, int[] classIds, int count) {
+        Scratch scratch = new Scratch();
+        int kept = run(x1, y1, x2, y2, scores, classIds, count, scratch);
+        return Arrays.copyOf(scratch.kept, kept);
+    }
+
+    /**
+     * Run NMS over the first count boxes using scratch for every work array.
+     *
+     * @return number of kept boxes; their indices are in scratch.kept[0..n), in descending score order
+     */
+    int run(float[] x1, float[] y1, float[] x2, float[] y2, float[] scores, int[] classIds, int count, Scratch scratch) {
+        if (count == 0) {
+            return 0;
+        }
+        scratch.ensureCapacity(count);
+        int[] order = scratch.order;
+        sortByScore(scores, count, scratch.keys, order);
+        boolean[] keep = scratch.keep;
+        Arrays.fill(keep, 0, count, false);
+
+        if (!classAware) {
+            suppress(x1, y1, x2, y2, order, 0, count, keep, scratch.keptBoxes, scratch.stamp, scratch.grids(1)[0]);
+        } else {
+            // Group the score-ordered indices by class, preserving order inside each group
+            int maxClass = 0;
+            for (int i = 0; i < count; i++) {
+                maxClass = Math.max(maxClass, classIds[i]);
+            }
+            int[] groupStart = scratch.groupStart(maxClass + 2);
+            for (int i = 0; i < count; i++) {
+                groupStart[classIds[i] + 1]++;
+            }
+            for (int c = 0; c <= maxClass; c++) {
+                groupStart[c + 1] += groupStart[c];
+            }
+            int[] grouped = scratch.grouped;
+            int[] fill = scratch.fill;
+            System.arraycopy(groupStart, 0, fill, 0, maxClass + 1);
+            for (int i = 0; i < count; i++) {
+                int idx = order[i];
+                grouped[fill[classIds[idx]]++] = idx;
+            }
+
+            ClassTask task = new ClassTask(x1, y1, x2, y2, grouped, groupStart, 0, maxClass + 1, keep,
+                    scratch.keptBoxes, scratch.stamp, scratch.grids(maxClass + 1));
+            if (count >= PARALLEL_MIN_CANDIDATES && maxClass > 0) {
+                ForkJoinPool.commonPool().invoke(task);
+            } else {
+                task.compute();
+            }
+        }
+
+        int[] result = scratch.kept;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[order[i]]) {
+                result[n++] = order[i];
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Indices 0..count-1 sorted by descending score, ties by ascending index
+     */
+    static int[] sortByScore(float[] scores, int count) {
+        int[] order = new int[count];
+        sortByScore(scores, count, new long[count], order);
+        return order;
+    }
+
+    /**
+     * sortByScore into order, using keys as work space; both hold at least count elements
+     */
+    static void sortByScore(float[] scores, int count, long[] keys, int[] order) {
+        for (int i = 0; i < count; i++) {
+            keys[i] = sortKey(scores[i], i);
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Key whose ascending order is descending score, then ascending index
+     */
+    static long sortKey(float score, int index) {
+        int bits = Float.floatToIntBits(score);
+        // Monotonic int for Float.compare ordering, inverted for descending
+        int descending = ~(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+        return ((long) descending << 32) | index;
+    }
+
+    /**
+     * Greedy suppression over order[from..to), already in score order; marks survivors in keep.
+     * Uses keptBoxes[from..to) and stamp[from..to) as work space, so disjoint ranges can run in parallel.
+     */
+    private void suppress(float[] x1, float[] y1, float[] x2, float[] y2, int[] order, int from, int to,
+                          boolean[] keep, int[] keptBoxes, int[] stamp, Grid grid) {
+        int n = to - from;
+        if (n < GRID_MIN_CANDIDATES || iouThreshold < 0) {
+            suppressPairwise(x1, y1, x2, y2, order, from, to, keep, keptBoxes);
+            return;
+        }
+
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            minX = Math.min(minX, x1[i]);
+            minY = Math.min(minY, y1[i]);
+            maxX = Math.max(maxX, x2[i]);
+            maxY = Math.max(maxY, y2[i]);
+        }
+        float spanX = maxX - minX;
+        float spanY = maxY - minY;
+        if (!(spanX > 0) || !(spanY > 0) || Float.isInfinite(spanX) || Float.isInfinite(spanY)) {
+            suppressPairwise(x1, y1, x2, y2, order, from, to, keep, keptBoxes);
+            return;
+        }
+
+        grid.reset(minX, minY, spanX, spanY, Math.max(1, Math.min(64, (int) Math.sqrt(n / 2.0))));
+        int keptCount = 0;
+        // stamp[from + k] == candidate position + 1 once kept box k was compared against that candidate
+        Arrays.fill(stamp, from, to, 0);
+
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            int stampValue = k - from + 1;
+            int cx1 = grid.cellX(x1[i]);
+            int cx2 = grid.cellX(x2[i]);
+            int cy1 = grid.cellY(y1[i]);
+            int cy2 = grid.cellY(y2[i]);
+
+            boolean suppressed = false;
+            for (int j = 0; j < grid.overflowSize && !suppressed; j++) {
+                int slot = from + grid.overflow[j];
+                stamp[slot] = stampValue;
+                suppressed = iou(x1, y1, x2, y2, keptBoxes[slot], i) > iouThreshold;
+            }
+            for (int cy = cy1; cy <= cy2 && !suppressed; cy++) {
+                for (int cx = cx1; cx <= cx2 && !suppressed; cx++) {
+                    int cell = cy * grid.size + cx;
+                    int[] slots = grid.cells[cell];
+                    for (int j = 0; j < grid.cellSizes[cell] && !suppressed; j++) {
+                        int slot = from + slots[j];
+                        if (stamp[slot] == stampValue) {
+                            continue;
+                        }
+                        stamp[slot] = stampValue;
+                        suppressed = iou(x1, y1, x2, y2, keptBoxes[slot], i) > iouThreshold;
+                    }
+                }
+            }
+
+            if (!suppressed) {
+                keep[i] = true;
+                keptBoxes[from + keptCount] = i;
+                grid.insert(keptCount, cx1, cy1, cx2, cy2);
+                keptCount++;
+            }
+        }
+    }
+
+    private void suppressPairwise(float[] x1, float[] y1, float[] x2, float[] y2,
+                                  int[] order, int from, int to, boolean[] keep, int[] keptBoxes) {
+        int keptCount = from;
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            boolean suppressed = false;
+            for (int j = from; j < keptCount; j++) {
+                if (iou(x1, y1, x2, y2, keptBoxes[j], i) > iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+            if (!suppressed) {
+                keep[i] = true;
+                keptBoxes[keptCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Intersection over Union of boxes a and b
+     */
+    public static float iou(float[] x1, float[] y1, float[] x2, float[] y2, int a, int b) {
+        float intersectionX1 = Math.max(x1[a], x1[b]);
+        float intersectionY1 = Math.max(y1[a], y1[b]);
+        float intersectionX2 = Math.min(x2[a], x2[b]);
+        float intersectionY2 = Math.min(y2[a], y2[b]);
+
+        if (intersectionX2 <= intersectionX1 || intersectionY2 <= intersectionY1) {
+            return 0.0f;
+        }
+
+        float intersectionArea = (intersectionX2 - intersectionX1) * (intersectionY2 - intersectionY1);
+        float areaA = (x2[a] - x1[a]) * (y2[a] - y1[a]);
+        float areaB = (x2[b] - x1[b]) * (y2[b] - y1[b]);
+        float unionArea = areaA + areaB - intersectionArea;
+        return intersectionArea / unionArea;
+    }
+
+    /**
+     * Work arrays of run, grown on demand and reused between calls. Not thread-safe.
+     */
+    static final class Scratch {
+        long[] keys = new long[0];
+        int[] order = new int[0];
+        boolean[] keep = new boolean[0];
+        int[] keptBoxes = new int[0];
+        int[] stamp = new int[0];
+        int[] grouped = new int[0];
+        int[] kept = new int[0];
+        private int[] groupStart = new int[0];
+        int[] fill = new int[0];
+        // Grid of the class task starting at each class; index 0 in class-agnostic mode
+        private Grid[] grids = new Grid[0];
+
+        void ensureCapacity(int count) {
+            if (order.length < count) {
+                int capacity = Math.max(count, order.length * 2);
+                keys = new long[capacity];
+                order = new int[capacity];
+                keep = new boolean[capacity];
+                keptBoxes = new int[capacity];
+                stamp = new int[capacity];
+                grouped = new int[capacity];
+                kept = new int[capacity];
+            }
+        }
+
+        /**
+         * Zeroed class offsets for classes 0..length-2; fill is sized to match
+         */
+        int[] groupStart(int length) {
+            if (groupStart.length < length) {
+                groupStart = new int[length];
+                fill = new int[length];
+            } else {
+                Arrays.fill(groupStart, 0, length, 0);
+            }
+            return groupStart;
+        }
+
+        /**
+         * Grids for classes 0..classes-1; entries are created by the tasks that use them
+         */
+        Grid[] grids(int classes) {
+            if (grids.length < classes) {
+                grids = Arrays.copyOf(grids, classes);
+            }
+            if (grids[0] == null) {
+                grids[0] = new Grid();
+            }
+            return grids;
+        }
+    }
+
+    /**
+     * Uniform grid of kept-box slots; reset reuses the cell arrays of earlier frames
+     */
+    static final class Grid {
+        float minX;
+        float minY;
+        float cellWidth;
+        float cellHeight;
+        int size;
+        int[][] cells = new int[0][];
+        int[] cellSizes = new int[0];
+        int[] overflow = new int[8];
+        int overflowSize;
+
+        void reset(float minX, float minY, float spanX, float spanY, int size) {
+            this.minX = minX;
+            this.minY = minY;
+            this.size = size;
+            this.cellWidth = spanX / size;
+            this.cellHeight = spanY / size;
+            int cellCount = size * size;
+            if (cells.length < cellCount) {
+                cells = Arrays.copyOf(cells, cellCount);
+                cellSizes = new int[cellCount];
+            } else {
+                Arrays.fill(cellSizes, 0, cellCount, 0);
+            }
+            overflowSize = 0;
+        }
+
+        int cellX(float x) {
+            return Math.max(0, Math.min(size - 1, (int) ((x - minX) / cellWidth)));
+        }
+
+        int cellY(float y) {
+            return Math.max(0, Math.min(size - 1, (int) ((y - minY) / cellHeight)));
+        }
+
+        void insert(int slot, int cx1, int cy1, int cx2, int cy2) {
+            if ((cx2 - cx1 + 1) * (cy2 - cy1 + 1) > MAX_CELLS_PER_BOX) {
+                if (overflowSize == overflow.length) {
+                    overflow = Arrays.copyOf(overflow, overflowSize * 2);
+                }
+                overflow[overflowSize++] = slot;
+                return;
+            }
+            for (int cy = cy1; cy <= cy2; cy++) {
+                for (int cx = cx1; cx <= cx2; cx++) {
+                    int cell = cy * size + cx;
+                    int[] slots = cells[cell];
+                    if (slots == null) {
+                        slots = new int[4];
+                        cells[cell] = slots;
+                    } else if (cellSizes[cell] == slots.length) {
+                        slots = Arrays.copyOf(slots, slots.length * 2);
+                        cells[cell] = slots;
+                    }
+                    slots[cellSizes[cell]++] = slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs suppression for a range of class groups, splitting in half for fork/join
+     */
+    private final class ClassTask extends RecursiveAction {
+        private final float[] x1;
+        private final float[] y1;
+        private final float[] x2;
+        private final float[] y2;
+        private final int[] grouped;
+        private final int[] groupStart;
+        private final int fromClass;
+        private final int toClass;
+        private final boolean[] keep;
+        private final int[] keptBoxes;
+        private final int[] stamp;
+        // Leaves use grids[fromClass]; leaf class ranges are disjoint, so no two tasks share a grid
+        private final Grid[] grids;
+
+        ClassTask(float[] x1, float[] y1, float[] x2, float[] y2, int[] grouped, int[] groupStart,
+                  int fromClass, int toClass, boolean[] keep, int[] keptBoxes, int[] stamp, Grid[] grids) {
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.grouped = grouped;
+            this.groupStart = groupStart;
+            this.fromClass = fromClass;
+            this.toClass = toClass;
+            this.keep = keep;
+            this.keptBoxes = keptBoxes;
+            this.stamp = stamp;
+            this.grids = grids;
+        }
+
+        @Override
+        protected void compute() {
+            int candidates = groupStart[toClass] - groupStart[fromClass];
+            if (toClass - fromClass > 1 && candidates >= PARALLEL_MIN_CANDIDATES / 4 && getPool() != null) {
+                int mid = (fromClass + toClass) >>> 1;
+                invokeAll(new ClassTask(x1, y1, x2, y2, grouped, groupStart, fromClass, mid, keep, keptBoxes, stamp, grids),
+                          new ClassTask(x1, y1, x2, y2, grouped, groupStart, mid, toClass, keep, keptBoxes, stamp, grids));
+                return;
+            }
+            Grid grid = grids[fromClass];
+            if (grid == null) {
+                grid = new Grid();
+                grids[fromClass] = grid;
+            }
+            for (int c = fromClass; c < toClass; c++) {
+                if (groupStart[c + 1] > groupStart[c]) {
+                    suppress(x1, y1, x2, y2, grouped, groupStart[c], groupStart[c + 1], keep, keptBoxes, stamp, grid);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+
+/**
+ * Directory of ORT-optimized model graphs keyed by the SHA-256 of the source model,
+ * the ONNX Runtime version, the optimization level and the CPU architecture.
+ * A cached graph is loaded with optimizations off, skipping graph rewriting at startup.
+ *
+ * Graphs are saved at EXTENDED_OPT at most: ALL_OPT adds layout transforms for the CPU
+ * that ran them (e.g. NCHWc), which ORT only supports on the same hardware, and hosts of
+ * one architecture sharing a cache directory may differ in CPU features. With ALL_OPT
+ * configured, the cached graph is loaded with ALL_OPT so those transforms run locally.
+ *
+ * The model digest is itself cached in a sidecar file next to the graphs, keyed by the
+ * model's canonical path, size and modification time, so a warm start does not read the
+ * whole model; it is rehashed only when one of those changes.
+ */
+final class OptimizedModelCache {
+
+    private final File directory;
+
+    OptimizedModelCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Location of the optimized graph for this model; may not exist yet
+     */
+    File resolve(String modelPath, String ortVersion, OptLevel level) throws IOException {
+        String name = modelDigest(new File(modelPath)) + "-ort" + ortVersion + "-" + savedLevel(level) + "-"
+                + System.getProperty("os.arch") + ".onnx";
+        return new File(directory, name);
+    }
+
+    /**
+     * SHA-256 of the model, from its sidecar when path, size and mtime still match
+     */
+    String modelDigest(File model) throws IOException {
+        String path = model.getCanonicalPath();
+        String size = Long.toString(model.length());
+        String lastModified = Long.toString(model.lastModified());
+        File sidecar = new File(directory, hex(sha256(path.getBytes(StandardCharsets.UTF_8))) + ".sha256");
+
+        Properties cached = new Properties();
+        if (sidecar.isFile()) {
+            try (InputStream in = Files.newInputStream(sidecar.toPath())) {
+                cached.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                // Unreadable sidecar: rehash and rewrite it
+                cached.clear();
+            }
+        }
+        String digest = cached.getProperty("sha256");
+        if (digest != null && path.equals(cached.getProperty("path"))
+                && size.equals(cached.getProperty("size"))
+                && lastModified.equals(cached.getProperty("lastModified"))) {
+            return digest;
+        }
+
+        digest = hex(sha256(model));
+        Properties entry = new Properties();
+        entry.setProperty("path", path);
+        entry.setProperty("size", size);
+        entry.setProperty("lastModified", lastModified);
+        entry.setProperty("sha256", digest);
+        try {
+            File temporary = newTemporary(sidecar);
+            try (OutputStream out = Files.newOutputStream(temporary.toPath())) {
+                entry.store(out, null);
+            }
+            commit(temporary, sidecar);
+        } catch (IOException e) {
+            // The digest is still valid; the next start just hashes again
+            System.err.println("Could not store model digest " + sidecar + ": " + e.getMessage());
+        }
+        return digest;
+    }
+
+    /**
+     * Level a graph is saved at for the configured level: never above EXTENDED_OPT, which is hardware independent
+     */
+    static OptLevel savedLevel(OptLevel configured) {
+        return configured == OptLevel.ALL_OPT ? OptLevel.EXTENDED_OPT : configured;
+    }
+
+    /**
+     * Level a saved graph is loaded with: NO_OPT, or ALL_OPT to add the hardware-specific transforms
+     */
+    static OptLevel loadLevel(OptLevel configured) {
+        return configured == OptLevel.ALL_OPT ? OptLevel.ALL_OPT : OptLevel.NO_OPT;
+    }
+
+    /**
+     * Temporary path for ORT to write a new optimized graph into
+     */
+    File newTemporary(File target) throws IOException {
+        Files.createDirectories(directory.toPath());
+        return new File(directory, target.getName() + "." + System.nanoTime() + ".tmp");
+    }
+
+    /**
+     * Publish a graph written by ORT; concurrent writers of the same model simply replace each other
+     */
+    void commit(File temporary, File target) throws IOException {
+        try {
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] sha256(File file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static byte[] sha256(byte[] data) {
+        return sha256().digest(data);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Arrays;
+
+/**
+ * Stride-aware view of a flat YOLO output tensor.
+ * Supports [channels, anchors], [batch, channels, anchors] and
+ * [batch, channels, height, width] where anchor index = h * width + w.
+ */
+final class OutputLayout {
+
+    final int batchSize;
+    final int numChannels;
+    final int numAnchors;
+    final int channelStride;
+    final int batchStride;
+
+    private OutputLayout(int batchSize, int numChannels, int numAnchors) {
+        this.batchSize = batchSize;
+        this.numChannels = numChannels;
+        this.numAnchors = numAnchors;
+        this.channelStride = numAnchors;
+        this.batchStride = numChannels * numAnchors;
+    }
+
+    static OutputLayout of(long[] shape) {
+        switch (shape.length) {
+            case 2:
+                return new OutputLayout(1, (int) shape[0], (int) shape[1]);
+            case 3:
+                return new OutputLayout((int) shape[0], (int) shape[1], (int) shape[2]);
+            case 4:
+                return new OutputLayout((int) shape[0], (int) shape[1], (int) (shape[2] * shape[3]));
+            default:
+                throw new IllegalArgumentException("Unsupported output shape format: " + Arrays.toString(shape));
+        }
+    }
+
+    /**
+     * Flat index of anchor 0 for the given batch entry and channel
+     */
+    int offset(int batchIndex, int channel) {
+        return batchIndex * batchStride + channel * channelStride;
+    }
+
+    static int elementCount(long[] shape) {
+        long count = 1;
+        for (long dim : shape) {
+            count *= dim;
+        }
+        return Math.toIntExact(count);
+    }
+}
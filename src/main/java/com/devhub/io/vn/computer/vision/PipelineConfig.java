@@ -0,0 +1,101 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Worker counts and queue sizes for a DetectionPipeline.
+ *
+ * Frames in flight are bounded by the queue capacity and worker counts, so a slow
+ * stage blocks the stages before it instead of growing memory.
+ */
+public class PipelineConfig {
+
+    private int preprocessThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int inferenceThreads = 0;
+    private int postprocessThreads = 1;
+    private int queueCapacity = 4;
+    private boolean ordered = true;
+    private MotionGateConfig motionGate;
+
+    public int getPreprocessThreads() {
+        return preprocessThreads;
+    }
+
+    /**
+     * Workers that letterbox and normalize decoded frames into tensor buffers
+     */
+    public void setPreprocessThreads(int preprocessThreads) {
+        if (preprocessThreads < 1) {
+            throw new IllegalArgumentException("preprocessThreads must be >= 1: " + preprocessThreads);
+        }
+        this.preprocessThreads = preprocessThreads;
+    }
+
+    public int getInferenceThreads() {
+        return inferenceThreads;
+    }
+
+    /**
+     * Workers calling the model concurrently; 0 uses one per pooled session
+     */
+    public void setInferenceThreads(int inferenceThreads) {
+        if (inferenceThreads < 0) {
+            throw new IllegalArgumentException("inferenceThreads must be >= 0: " + inferenceThreads);
+        }
+        this.inferenceThreads = inferenceThreads;
+    }
+
+    public int getPostprocessThreads() {
+        return postprocessThreads;
+    }
+
+    /**
+     * Workers decoding model output and running NMS
+     */
+    public void setPostprocessThreads(int postprocessThreads) {
+        if (postprocessThreads < 1) {
+            throw new IllegalArgumentException("postprocessThreads must be >= 1: " + postprocessThreads);
+        }
+        this.postprocessThreads = postprocessThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Frames buffered between two stages
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be >= 1: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Deliver results in frame order (default); false delivers each frame as soon as it completes
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public MotionGateConfig getMotionGate() {
+        return motionGate;
+    }
+
+    /**
+     * Skip inference on frames that barely changed, reusing the last detections; null (default) infers every frame
+     */
+    public void setMotionGate(MotionGateConfig motionGate) {
+        this.motionGate = motionGate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PipelineConfig[preprocess=%d, inference=%d, postprocess=%d, queue=%d, ordered=%b, motionGate=%s]",
+                preprocessThreads, inferenceThreads, postprocessThreads, queueCapacity, ordered, motionGate);
+    }
+}
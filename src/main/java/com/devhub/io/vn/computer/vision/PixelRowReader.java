@@ -0,0 +1,315 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.ByteBuffer;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.PixelFormat;
+
+/**
+ * Reads image rows as packed 0xRRGGBB ints.
+ * Common raster layouts are read straight from the backing DataBuffer array,
+ * everything else goes through BufferedImage.getRGB one row at a time.
+ * Raw frames are read in place from their ByteBuffer by absolute index.
+ */
+abstract class PixelRowReader {
+
+    protected final int width;
+    protected final int height;
+
+    PixelRowReader(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Read row y into rgb[0..width) as 0xRRGGBB values
+     */
+    abstract void readRow(int y, int[] rgb);
+
+    /**
+     * Read the pixels at columns xs[0..count) of row y into rgb[0..count) as 0xRRGGBB values
+     */
+    void readColumns(int y, int[] xs, int count, int[] rgb) {
+        if (scratch == null) {
+            scratch = new int[width];
+        }
+        readRow(y, scratch);
+        for (int i = 0; i < count; i++) {
+            rgb[i] = scratch[xs[i]];
+        }
+    }
+
+    private int[] scratch;
+
+    /**
+     * Pick the fastest reader for the image layout
+     */
+    static PixelRowReader of(BufferedImage image) {
+        Raster raster = image.getRaster();
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+                if (raster.getDataBuffer() instanceof DataBufferInt
+                        && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+                    return new IntRgbReader(raster);
+                }
+                break;
+            case BufferedImage.TYPE_3BYTE_BGR:
+            case BufferedImage.TYPE_4BYTE_ABGR:
+                if (raster.getDataBuffer() instanceof DataBufferByte
+                        && raster.getSampleModel() instanceof ComponentSampleModel) {
+                    return new InterleavedByteReader(raster);
+                }
+                break;
+            default:
+                break;
+        }
+        return new GenericReader(image);
+    }
+
+    /**
+     * Reader over a raw frame starting at the buffer's position; the buffer itself is not modified.
+     * stride is the number of bytes per row, per luma row for NV12 whose interleaved UV plane
+     * follows the luma plane with the same stride.
+     */
+    static PixelRowReader of(ByteBuffer pixels, int width, int height, int stride, PixelFormat format) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid frame size: " + width + "x" + height);
+        }
+        int rowBytes = format == PixelFormat.NV12 ? width : width * 3;
+        if (stride < rowBytes) {
+            throw new IllegalArgumentException("stride " + stride + " is less than the " + rowBytes + " bytes of a " + format + " row");
+        }
+        long required = format == PixelFormat.NV12
+                ? (long) stride * height + (long) stride * ((height - 1) / 2) + ((width + 1) / 2) * 2
+                : (long) stride * (height - 1) + rowBytes;
+        if (pixels.remaining() < required) {
+            throw new IllegalArgumentException(width + "x" + height + " " + format + " frame with stride " + stride
+                    + " needs " + required + " bytes, buffer has " + pixels.remaining());
+        }
+        switch (format) {
+            case RGB:
+                return new PackedBufferReader(pixels, width, height, stride, 0, 2);
+            case BGR:
+                return new PackedBufferReader(pixels, width, height, stride, 2, 0);
+            default:
+                return new Nv12Reader(pixels, width, height, stride);
+        }
+    }
+
+    /**
+     * TYPE_INT_RGB / TYPE_INT_ARGB: one int per pixel, RGB in the low 24 bits
+     */
+    private static final class IntRgbReader extends PixelRowReader {
+        private final int[] data;
+        private final int origin;
+        private final int scanlineStride;
+
+        IntRgbReader(Raster raster) {
+            super(raster.getWidth(), raster.getHeight());
+            DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+            SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+            this.data = buffer.getData();
+            this.scanlineStride = model.getScanlineStride();
+            this.origin = buffer.getOffset() + model.getOffset(
+                    -raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+        }
+
+        @Override
+        void readRow(int y, int[] rgb) {
+            int idx = origin + y * scanlineStride;
+            for (int x = 0; x < width; x++) {
+                rgb[x] = data[idx + x] & 0xFFFFFF;
+            }
+        }
+
+        @Override
+        void readColumns(int y, int[] xs, int count, int[] rgb) {
+            int idx = origin + y * scanlineStride;
+            for (int i = 0; i < count; i++) {
+                rgb[i] = data[idx + xs[i]] & 0xFFFFFF;
+            }
+        }
+    }
+
+    /**
+     * TYPE_3BYTE_BGR / TYPE_4BYTE_ABGR: interleaved bytes, band order from the sample model
+     */
+    private static final class InterleavedByteReader extends PixelRowReader {
+        private final byte[] data;
+        private final int origin;
+        private final int scanlineStride;
+        private final int pixelStride;
+        private final int redOffset;
+        private final int greenOffset;
+        private final int blueOffset;
+
+        InterleavedByteReader(Raster raster) {
+            super(raster.getWidth(), raster.getHeight());
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            int[] bandOffsets = model.getBandOffsets();
+            this.data = buffer.getData();
+            this.scanlineStride = model.getScanlineStride();
+            this.pixelStride = model.getPixelStride();
+            this.origin = buffer.getOffset()
+                    - raster.getSampleModelTranslateY() * scanlineStride
+                    - raster.getSampleModelTranslateX() * pixelStride;
+            this.redOffset = bandOffsets[0];
+            this.greenOffset = bandOffsets[1];
+            this.blueOffset = bandOffsets[2];
+        }
+
+        @Override
+        void readRow(int y, int[] rgb) {
+            int idx = origin + y * scanlineStride;
+            for (int x = 0; x < width; x++) {
+                rgb[x] = ((data[idx + redOffset] & 0xFF) << 16)
+                        | ((data[idx + greenOffset] & 0xFF) << 8)
+                        | (data[idx + blueOffset] & 0xFF);
+                idx += pixelStride;
+            }
+        }
+
+        @Override
+        void readColumns(int y, int[] xs, int count, int[] rgb) {
+            int base = origin + y * scanlineStride;
+            for (int i = 0; i < count; i++) {
+                int idx = base + xs[i] * pixelStride;
+                rgb[i] = ((data[idx + redOffset] & 0xFF) << 16)
+                        | ((data[idx + greenOffset] & 0xFF) << 8)
+                        | (data[idx + blueOffset] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Packed 3-byte RGB or BGR rows of a raw frame
+     */
+    private static final class PackedBufferReader extends PixelRowReader {
+        private final ByteBuffer data;
+        private final int origin;
+        private final int stride;
+        private final int redOffset;
+        private final int blueOffset;
+
+        PackedBufferReader(ByteBuffer data, int width, int height, int stride, int redOffset, int blueOffset) {
+            super(width, height);
+            this.data = data;
+            this.origin = data.position();
+            this.stride = stride;
+            this.redOffset = redOffset;
+            this.blueOffset = blueOffset;
+        }
+
+        @Override
+        void readRow(int y, int[] rgb) {
+            int idx = origin + y * stride;
+            for (int x = 0; x < width; x++) {
+                rgb[x] = ((data.get(idx + redOffset) & 0xFF) << 16)
+                        | ((data.get(idx + 1) & 0xFF) << 8)
+                        | (data.get(idx + blueOffset) & 0xFF);
+                idx += 3;
+            }
+        }
+
+        @Override
+        void readColumns(int y, int[] xs, int count, int[] rgb) {
+            int base = origin + y * stride;
+            for (int i = 0; i < count; i++) {
+                int idx = base + xs[i] * 3;
+                rgb[i] = ((data.get(idx + redOffset) & 0xFF) << 16)
+                        | ((data.get(idx + 1) & 0xFF) << 8)
+                        | (data.get(idx + blueOffset) & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * NV12: full-resolution luma plane, then one interleaved U, V pair per 2x2 block.
+     * Converted per read pixel with the BT.601 limited-range integer coefficients
+     * hardware decoders use, so only sampled pixels are ever converted.
+     */
+    private static final class Nv12Reader extends PixelRowReader {
+        private final ByteBuffer data;
+        private final int origin;
+        private final int chromaOrigin;
+        private final int stride;
+
+        Nv12Reader(ByteBuffer data, int width, int height, int stride) {
+            super(width, height);
+            this.data = data;
+            this.origin = data.position();
+            this.chromaOrigin = origin + stride * height;
+            this.stride = stride;
+        }
+
+        @Override
+        void readRow(int y, int[] rgb) {
+            int luma = origin + y * stride;
+            int chroma = chromaOrigin + (y >> 1) * stride;
+            for (int x = 0; x < width; x++) {
+                int uv = chroma + (x & ~1);
+                rgb[x] = toRgb(data.get(luma + x) & 0xFF, data.get(uv) & 0xFF, data.get(uv + 1) & 0xFF);
+            }
+        }
+
+        @Override
+        void readColumns(int y, int[] xs, int count, int[] rgb) {
+            int luma = origin + y * stride;
+            int chroma = chromaOrigin + (y >> 1) * stride;
+            for (int i = 0; i < count; i++) {
+                int x = xs[i];
+                int uv = chroma + (x & ~1);
+                rgb[i] = toRgb(data.get(luma + x) & 0xFF, data.get(uv) & 0xFF, data.get(uv + 1) & 0xFF);
+            }
+        }
+
+        private static int toRgb(int y, int u, int v) {
+            int c = (y - 16) * 298 + 128;
+            int d = u - 128;
+            int e = v - 128;
+            int r = clamp((c + 409 * e) >> 8);
+            int g = clamp((c - 100 * d - 208 * e) >> 8);
+            int b = clamp((c + 516 * d) >> 8);
+            return r << 16 | g << 8 | b;
+        }
+
+        private static int clamp(int value) {
+            return value < 0 ? 0 : value > 255 ? 255 : value;
+        }
+    }
+
+    /**
+     * Any other layout: bulk getRGB per row through the color model
+     */
+    private static final class GenericReader extends PixelRowReader {
+        private final BufferedImage image;
+
+        GenericReader(BufferedImage image) {
+            super(image.getWidth(), image.getHeight());
+            this.image = image;
+        }
+
+        @Override
+        void readRow(int y, int[] rgb) {
+            image.getRGB(0, y, width, 1, rgb, 0, width);
+            for (int x = 0; x < width; x++) {
+                rgb[x] &= 0xFFFFFF;
+            }
+        }
+    }
+}
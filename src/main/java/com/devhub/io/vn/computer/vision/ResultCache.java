@@ -0,0 +1,201 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of detection results for repeated images: client retries, duplicate uploads,
+ * static camera frames.
+ *
+ * Keys are a 128-bit hash of the decoded pixels (or of the file bytes for path
+ * overloads) combined with the detector class, its class names, the model file (path,
+ * size and modification time) and every setting that changes results, so a threshold
+ * change, a different model or a different detector simply misses. Only copies of the
+ * detections are stored, never the images. One cache can be shared by several detectors.
+ */
+public final class ResultCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxEntries results kept before the least recently used is evicted
+     * @param ttlMillis  age after which a result is recomputed; 0 keeps results until evicted
+     */
+    public ResultCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1: " + maxEntries);
+        }
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("ttlMillis must be >= 0: " + ttlMillis);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ResultCache.Entry> eldest) {
+                if (size() > ResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Copy a cached result into result; false on a miss
+     */
+    boolean get(Key key, DetectionBatch result) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.createdNanos > ttlNanos) {
+                entries.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        // Cached batches are never modified after put, so they can be copied outside the lock
+        result.copyFrom(entry.detections);
+        return true;
+    }
+
+    void put(Key key, DetectionBatch result) {
+        DetectionBatch copy = new DetectionBatch(result.size());
+        copy.copyFrom(result);
+        Entry entry = new Entry(copy);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Drop every cached result, e.g. after replacing a model file in place
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Drop the cached results of one model path
+     */
+    public void invalidate(String modelPath) {
+        synchronized (entries) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().modelPath.equals(modelPath)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Results dropped to stay within maxEntries
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Results found older than the TTL
+     */
+    public long getExpiredCount() {
+        return expirations.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultCache[size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expired=%d]",
+                size(), maxEntries, getHitCount(), getMissCount(), getHitRate() * 100,
+                getEvictionCount(), getExpiredCount());
+    }
+
+    /**
+     * Content hash plus detector and model identity and a fingerprint of the result-affecting settings
+     */
+    static final class Key {
+        final String detector;
+        final String modelPath;
+        final long modelVersion;
+        final long settings;
+        final long contentHigh;
+        final long contentLow;
+
+        Key(String detector, String modelPath, long modelVersion, long settings, ContentHash content) {
+            long[] digest = content.digest();
+            this.detector = detector;
+            this.modelPath = modelPath;
+            this.modelVersion = modelVersion;
+            this.settings = settings;
+            this.contentHigh = digest[0];
+            this.contentLow = digest[1];
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return contentHigh == key.contentHigh && contentLow == key.contentLow && settings == key.settings
+                    && modelVersion == key.modelVersion && modelPath.equals(key.modelPath)
+                    && detector.equals(key.detector);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (contentHigh ^ (contentHigh >>> 32));
+        }
+    }
+
+    private static final class Entry {
+        final DetectionBatch detections;
+        final long createdNanos = System.nanoTime();
+
+        Entry(DetectionBatch detections) {
+            this.detections = detections;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Column-oriented class score decoding for YOLO outputs laid out as [4 + classes, anchors].
+ *
+ * Anchors are decoded in blocks: each class row of the block is copied into a small array
+ * and folded into running per-anchor max / argmax arrays, so every class row is read
+ * sequentially once instead of striding across all rows per anchor. The block's anchors
+ * above the confidence threshold are then listed in passed, and only those need their
+ * box rows read. Ties keep the lowest class index, as a per-anchor scan does.
+ *
+ * The loops are overridable so a vectorized subclass can replace them; VectorSupport picks
+ * the implementation. Not thread-safe: one decoder per DetectionBatch.
+ */
+class ScoreDecoder {
+
+    /** Anchors per block; a multiple of every vector length */
+    static final int BLOCK = 1024;
+
+    final float[] row = new float[BLOCK];
+    final float[] maxScores = new float[BLOCK];
+    final int[] classIds = new int[BLOCK];
+    final int[] passed = new int[BLOCK];
+
+    /**
+     * Best score and class of count anchors whose class 0 score is at scoreOffset, class rows
+     * stride apart. Returns how many of them score above threshold; their indices in the
+     * block are in passed[0..n), in anchor order.
+     */
+    final int decode(FloatBuffer output, int scoreOffset, int stride, int numClasses, int count, float threshold) {
+        output.position(scoreOffset);
+        output.get(maxScores, 0, count);
+        Arrays.fill(classIds, 0, count, 0);
+        for (int c = 1; c < numClasses; c++) {
+            output.position(scoreOffset + c * stride);
+            output.get(row, 0, count);
+            accumulate(c, Float.NEGATIVE_INFINITY, 0, count);
+        }
+        return select(0, count, threshold, 0);
+    }
+
+    /**
+     * decode restricted to the rows of classes[k] below numClasses, each thresholded by
+     * thresholds[k] before it competes for the max. classes must be ascending.
+     */
+    final int decode(FloatBuffer output, int scoreOffset, int stride, int numClasses,
+                     int[] classes, float[] thresholds, int count) {
+        Arrays.fill(maxScores, 0, count, Float.NEGATIVE_INFINITY);
+        for (int k = 0; k < classes.length && classes[k] < numClasses; k++) {
+            output.position(scoreOffset + classes[k] * stride);
+            output.get(row, 0, count);
+            accumulate(classes[k], thresholds[k], 0, count);
+        }
+        // Only anchors with a class above its threshold left negative infinity
+        return select(0, count, Float.NEGATIVE_INFINITY, 0);
+    }
+
+    /**
+     * Fold the scores in row[from..to) above threshold of class classId into the running max / argmax
+     */
+    void accumulate(int classId, float threshold, int from, int to) {
+        for (int i = from; i < to; i++) {
+            float score = row[i];
+            if (score > maxScores[i] && score > threshold) {
+                maxScores[i] = score;
+                classIds[i] = classId;
+            }
+        }
+    }
+
+    /**
+     * Append the anchors in [from, to) above threshold to passed, starting at passedCount; returns the new count
+     */
+    int select(int from, int to, float threshold, int passedCount) {
+        for (int i = from; i < to; i++) {
+            if (maxScores[i] > threshold) {
+                passed[passedCount++] = i;
+            }
+        }
+        return passedCount;
+    }
+}
@@ -0,0 +1,232 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+/**
+ * Fixed pool of OrtSessions for one model, all sharing one OrtEnvironment.
+ * Every borrow must be paired with a release, whatever the checkout policy.
+ */
+public final class SessionPool implements AutoCloseable {
+
+    private final SessionPoolConfig config;
+    private final SessionPoolConfig.CheckoutPolicy policy;
+    private final long checkoutTimeoutMs;
+    private final List<OrtSession> sessions;
+    private final BlockingQueue<OrtSession> idle;
+    private final AtomicInteger nextShared = new AtomicInteger();
+    private final boolean optimizedModelCacheHit;
+
+    public SessionPool(OrtEnvironment env, String modelPath, SessionPoolConfig config) throws OrtException {
+        this.config = config;
+        this.policy = config.getCheckoutPolicy();
+        this.checkoutTimeoutMs = config.getCheckoutTimeoutMs();
+        File cachedModel = resolveCachedModel(env, modelPath, config);
+        boolean cacheHit = cachedModel != null && cachedModel.isFile();
+        List<OrtSession> created = new ArrayList<>(config.getPoolSize());
+        try {
+            for (int i = 0; i < config.getPoolSize(); i++) {
+                try (OrtSession.SessionOptions options = config.createSessionOptions()) {
+                    if (cachedModel != null && cachedModel.isFile()) {
+                        created.add(createFromCache(env, modelPath, cachedModel, config, options));
+                    } else if (cachedModel != null) {
+                        created.add(createAndCache(env, modelPath, cachedModel, config, options));
+                    } else {
+                        created.add(env.createSession(modelPath, options));
+                    }
+                }
+            }
+        } catch (OrtException e) {
+            closeAll(created);
+            throw e;
+        }
+        this.optimizedModelCacheHit = cacheHit && cachedModel.isFile();
+        this.sessions = Collections.unmodifiableList(created);
+        this.idle = new ArrayBlockingQueue<>(created.size(), false, created);
+    }
+
+    /**
+     * Obtain a session according to the checkout policy
+     */
+    public OrtSession borrow() {
+        switch (policy) {
+            case SHARED:
+                return sessions.get(Math.floorMod(nextShared.getAndIncrement(), sessions.size()));
+            case FAIL_FAST: {
+                OrtSession session = idle.poll();
+                if (session == null) {
+                    throw new PoolExhaustedException("All " + sessions.size() + " sessions are busy");
+                }
+                return session;
+            }
+            case BLOCK:
+            default:
+                try {
+                    OrtSession session = checkoutTimeoutMs > 0
+                            ? idle.poll(checkoutTimeoutMs, TimeUnit.MILLISECONDS) : idle.take();
+                    if (session == null) {
+                        throw new PoolExhaustedException("No session available after " + checkoutTimeoutMs + "ms");
+                    }
+                    return session;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PoolExhaustedException("Interrupted while waiting for a session", e);
+                }
+        }
+    }
+
+    /**
+     * Return a session obtained from borrow
+     */
+    public void release(OrtSession session) {
+        if (policy != SessionPoolConfig.CheckoutPolicy.SHARED) {
+            idle.offer(session);
+        }
+    }
+
+    /**
+     * First session, used for model metadata (input/output names and info)
+     */
+    public OrtSession primary() {
+        return sessions.get(0);
+    }
+
+    /**
+     * All pooled sessions, e.g. for warm-up runs; does not check anything out
+     */
+    public List<OrtSession> getSessions() {
+        return sessions;
+    }
+
+    public int getSize() {
+        return sessions.size();
+    }
+
+    /**
+     * Sessions currently free for exclusive checkout
+     */
+    public int getAvailable() {
+        return policy == SessionPoolConfig.CheckoutPolicy.SHARED ? sessions.size() : idle.size();
+    }
+
+    /**
+     * True when the sessions were loaded from a previously cached optimized graph
+     */
+    public boolean isOptimizedModelCacheHit() {
+        return optimizedModelCacheHit;
+    }
+    
+    /**
+     * Configuration the pool was created with
+     */
+    public SessionPoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        closeAll(sessions);
+        idle.clear();
+    }
+
+    private static File resolveCachedModel(OrtEnvironment env, String modelPath, SessionPoolConfig config) {
+        if (config.getOptimizedModelCacheDir() == null) {
+            return null;
+        }
+        try {
+            return new OptimizedModelCache(new File(config.getOptimizedModelCacheDir()))
+                    .resolve(modelPath, env.getVersion(), config.getOptimizationLevel());
+        } catch (IOException e) {
+            // Unreadable model: let createSession report the real error
+            return null;
+        }
+    }
+
+    /**
+     * Load an already optimized graph with graph optimization off, or only the hardware-specific
+     * ALL_OPT transforms when those are configured; falls back to the source model if it is unusable
+     */
+    private static OrtSession createFromCache(OrtEnvironment env, String modelPath, File cachedModel, SessionPoolConfig config,
+                                              OrtSession.SessionOptions options) throws OrtException {
+        options.setOptimizationLevel(OptimizedModelCache.loadLevel(config.getOptimizationLevel()));
+        try {
+            return env.createSession(cachedModel.getPath(), options);
+        } catch (OrtException e) {
+            System.err.println("Discarding unusable optimized model " + cachedModel + ": " + e.getMessage());
+            cachedModel.delete();
+            try (OrtSession.SessionOptions fresh = config.createSessionOptions()) {
+                return env.createSession(modelPath, fresh);
+            }
+        }
+    }
+
+    /**
+     * Load the source model and have ORT write the optimized graph into the cache
+     */
+    private static OrtSession createAndCache(OrtEnvironment env, String modelPath, File cachedModel, SessionPoolConfig config,
+                                             OrtSession.SessionOptions options) throws OrtException {
+        OptimizedModelCache cache = new OptimizedModelCache(cachedModel.getParentFile());
+        File temporary;
+        try {
+            temporary = cache.newTemporary(cachedModel);
+        } catch (IOException e) {
+            System.err.println("Optimized model cache unavailable: " + e.getMessage());
+            return env.createSession(modelPath, options);
+        }
+        OrtSession.SessionOptions.OptLevel configured = config.getOptimizationLevel();
+        OrtSession.SessionOptions.OptLevel saved = OptimizedModelCache.savedLevel(configured);
+        options.setOptimizationLevel(saved);
+        options.setOptimizedModelFilePath(temporary.getPath());
+        OrtSession session = env.createSession(modelPath, options);
+        boolean stored = true;
+        try {
+            cache.commit(temporary, cachedModel);
+        } catch (IOException e) {
+            System.err.println("Could not store optimized model " + cachedModel + ": " + e.getMessage());
+            temporary.delete();
+            stored = false;
+        }
+        if (saved == configured) {
+            return session;
+        }
+        // Saved below the configured level; reload so this session gets the hardware-specific transforms too
+        session.close();
+        try (OrtSession.SessionOptions fresh = config.createSessionOptions()) {
+            return stored ? createFromCache(env, modelPath, cachedModel, config, fresh) : env.createSession(modelPath, fresh);
+        }
+    }
+
+    private static void closeAll(List<OrtSession> sessions) {
+        for (OrtSession session : sessions) {
+            try {
+                session.close();
+            } catch (OrtException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Thrown when no session can be checked out under the configured policy
+     */
+    public static class PoolExhaustedException extends RuntimeException {
+        public PoolExhaustedException(String message) {
+            super(message);
+        }
+
+        public PoolExhaustedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.Arrays;
+
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions.ExecutionMode;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+
+/**
+ * Session pool and ONNX Runtime threading configuration.
+ * 
+ * Few sessions with many intra-op threads favour per-request latency;
+ * many sessions with few threads each favour aggregate throughput.
+ */
+public class SessionPoolConfig {
+
+    /**
+     * How callers obtain a session from the pool
+     */
+    public enum CheckoutPolicy {
+        /** Sessions are shared round-robin; callers never wait (OrtSession.run is thread-safe) */
+        SHARED,
+        /** Exclusive checkout; wait up to checkoutTimeoutMs for a free session (0 = wait forever) */
+        BLOCK,
+        /** Exclusive checkout; fail immediately when every session is busy */
+        FAIL_FAST
+    }
+
+    private int poolSize = 1;
+    private int intraOpThreads = 0;
+    private int interOpThreads = 0;
+    private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+    private CheckoutPolicy checkoutPolicy = CheckoutPolicy.SHARED;
+    private long checkoutTimeoutMs = 0;
+    private OptLevel optimizationLevel = OptLevel.ALL_OPT;
+    private String optimizedModelCacheDir;
+    private int[][] warmUpShapes = new int[0][];
+    private int warmUpRuns = 1;
+
+    /**
+     * Build SessionOptions for one pooled session
+     */
+    public OrtSession.SessionOptions createSessionOptions() throws OrtException {
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        if (intraOpThreads > 0) {
+            options.setIntraOpNumThreads(intraOpThreads);
+        }
+        if (interOpThreads > 0) {
+            options.setInterOpNumThreads(interOpThreads);
+        }
+        options.setExecutionMode(executionMode);
+        options.setOptimizationLevel(optimizationLevel);
+        return options;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be >= 1: " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+
+    public int getIntraOpThreads() {
+        return intraOpThreads;
+    }
+
+    /**
+     * Threads used inside one operator; 0 keeps the ONNX Runtime default
+     */
+    public void setIntraOpThreads(int intraOpThreads) {
+        this.intraOpThreads = intraOpThreads;
+    }
+
+    public int getInterOpThreads() {
+        return interOpThreads;
+    }
+
+    /**
+     * Threads used across independent operators in PARALLEL mode; 0 keeps the ONNX Runtime default
+     */
+    public void setInterOpThreads(int interOpThreads) {
+        this.interOpThreads = interOpThreads;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public CheckoutPolicy getCheckoutPolicy() {
+        return checkoutPolicy;
+    }
+
+    public void setCheckoutPolicy(CheckoutPolicy checkoutPolicy) {
+        this.checkoutPolicy = checkoutPolicy;
+    }
+
+    public long getCheckoutTimeoutMs() {
+        return checkoutTimeoutMs;
+    }
+
+    public void setCheckoutTimeoutMs(long checkoutTimeoutMs) {
+        this.checkoutTimeoutMs = checkoutTimeoutMs;
+    }
+
+    public OptLevel getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
+    /**
+     * Graph optimization applied when a model is loaded from source (default ALL_OPT).
+     * The optimized model cache saves graphs at EXTENDED_OPT at most, since ALL_OPT graphs are hardware specific
+     */
+    public void setOptimizationLevel(OptLevel optimizationLevel) {
+        this.optimizationLevel = optimizationLevel;
+    }
+
+    public String getOptimizedModelCacheDir() {
+        return optimizedModelCacheDir;
+    }
+
+    /**
+     * Directory for optimized graphs; the first start writes one, later starts load it with
+     * optimizations off. null (default) disables the cache
+     */
+    public void setOptimizedModelCacheDir(String optimizedModelCacheDir) {
+        this.optimizedModelCacheDir = optimizedModelCacheDir;
+    }
+
+    public int[][] getWarmUpShapes() {
+        return warmUpShapes.clone();
+    }
+
+    /**
+     * Input shapes {width, height} or {width, height, batch} run on every session before the model is ready
+     */
+    public void setWarmUpShapes(int[]... warmUpShapes) {
+        for (int[] shape : warmUpShapes) {
+            if (shape.length < 2 || shape.length > 3) {
+                throw new IllegalArgumentException("Warm-up shape must be {width, height[, batch]}: " + Arrays.toString(shape));
+            }
+        }
+        this.warmUpShapes = warmUpShapes.clone();
+    }
+
+    public int getWarmUpRuns() {
+        return warmUpRuns;
+    }
+
+    /**
+     * Synthetic inferences per warm-up shape and session
+     */
+    public void setWarmUpRuns(int warmUpRuns) {
+        if (warmUpRuns < 1) {
+            throw new IllegalArgumentException("warmUpRuns must be >= 1: " + warmUpRuns);
+        }
+        this.warmUpRuns = warmUpRuns;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SessionPoolConfig[pool=%d, intra=%d, inter=%d, mode=%s, checkout=%s, opt=%s, cache=%s]",
+                poolSize, intraOpThreads, interOpThreads, executionMode, checkoutPolicy, optimizationLevel, optimizedModelCacheDir);
+    }
+}
@@ -0,0 +1,137 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed set of canonical input sizes.
+ * Every image is letterboxed into the bucket whose aspect ratio is closest to
+ * its own, so ONNX Runtime only ever sees a handful of input shapes and can
+ * keep its memory plans instead of re-planning for each new aspect ratio.
+ */
+public final class ShapeBuckets {
+
+    private final int[] widths;
+    private final int[] heights;
+    private final AtomicLongArray hits;
+    private final AtomicLongArray warmUpTimesMs;
+
+    /**
+     * @param sizes {width, height} pairs, each a multiple of 32
+     */
+    public ShapeBuckets(int[]... sizes) {
+        if (sizes.length == 0) {
+            throw new IllegalArgumentException("At least one bucket is required");
+        }
+        this.widths = new int[sizes.length];
+        this.heights = new int[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            int width = sizes[i][0];
+            int height = sizes[i][1];
+            if (width <= 0 || height <= 0 || width % 32 != 0 || height % 32 != 0) {
+                throw new IllegalArgumentException("Bucket size must be a positive multiple of 32: " + width + "x" + height);
+            }
+            widths[i] = width;
+            heights[i] = height;
+        }
+        this.hits = new AtomicLongArray(sizes.length);
+        this.warmUpTimesMs = new AtomicLongArray(sizes.length);
+    }
+
+    /**
+     * 640x640, 640x480 and 480x640
+     */
+    public static ShapeBuckets standard() {
+        return new ShapeBuckets(new int[]{640, 640}, new int[]{640, 480}, new int[]{480, 640});
+    }
+
+    /**
+     * Index of the bucket closest in aspect ratio (log scale); ties go to the larger bucket
+     */
+    public int select(int width, int height) {
+        double aspect = Math.log((double) width / height);
+        int best = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < widths.length; i++) {
+            double distance = Math.abs(Math.log((double) widths[i] / heights[i]) - aspect);
+            if (distance < bestDistance
+                    || (distance == bestDistance && widths[i] * heights[i] > widths[best] * heights[best])) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Select a bucket and count the hit
+     */
+    public int acquire(int width, int height) {
+        int bucket = select(width, height);
+        hits.incrementAndGet(bucket);
+        return bucket;
+    }
+
+    public int size() {
+        return widths.length;
+    }
+
+    public int getWidth(int bucket) {
+        return widths[bucket];
+    }
+
+    public int getHeight(int bucket) {
+        return heights[bucket];
+    }
+
+    public long getHits(int bucket) {
+        return hits.get(bucket);
+    }
+
+    /**
+     * Time setShapeBuckets spent warming up the bucket; 0 before warm-up
+     */
+    public long getWarmUpTimeMs(int bucket) {
+        return warmUpTimesMs.get(bucket);
+    }
+
+    void setWarmUpTimeMs(int bucket, long warmUpTimeMs) {
+        warmUpTimesMs.set(bucket, warmUpTimeMs);
+    }
+
+    /**
+     * Fraction of requests routed to each bucket
+     */
+    public double[] getHitRates() {
+        long[] counts = new long[widths.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = hits.get(i);
+            total += counts[i];
+        }
+        double[] rates = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            rates[i] = total == 0 ? 0.0 : (double) counts[i] / total;
+        }
+        return rates;
+    }
+
+    public void resetHits() {
+        for (int i = 0; i < widths.length; i++) {
+            hits.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        double[] rates = getHitRates();
+        StringBuilder sb = new StringBuilder("ShapeBuckets[");
+        for (int i = 0; i < widths.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(widths[i]).append('x').append(heights[i])
+              .append(String.format("=%d (%.1f%%)", hits.get(i), rates[i] * 100));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of native-order direct FloatBuffers keyed by element count, and of direct
+ * ByteBuffers keyed by byte count for FLOAT16 and UINT8 tensors.
+ * OnnxTensor wraps direct buffers without copying them, so a pooled buffer
+ * must not be released until the tensor created from it is closed.
+ */
+public final class TensorBufferPool {
+
+    private final int maxIdlePerSize;
+    private final Map<Integer, Slot<FloatBuffer>> slots = new ConcurrentHashMap<>();
+    private final Map<Integer, Slot<ByteBuffer>> byteSlots = new ConcurrentHashMap<>();
+
+    public TensorBufferPool(int maxIdlePerSize) {
+        this.maxIdlePerSize = maxIdlePerSize;
+    }
+
+    /**
+     * Borrow a buffer with position 0 and limit == elements
+     */
+    public FloatBuffer acquire(int elements) {
+        Slot<FloatBuffer> slot = slots.get(elements);
+        FloatBuffer buffer = slot != null ? slot.buffers.poll() : null;
+        if (buffer != null) {
+            slot.size.decrementAndGet();
+        } else {
+            buffer = ByteBuffer.allocateDirect(elements * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer obtained from acquire
+     */
+    public void release(FloatBuffer buffer) {
+        slots.computeIfAbsent(buffer.capacity(), k -> new Slot<>()).offer(buffer, maxIdlePerSize);
+    }
+
+    /**
+     * Borrow a native-order direct byte buffer with position 0 and limit == bytes
+     */
+    public ByteBuffer acquireBytes(int bytes) {
+        Slot<ByteBuffer> slot = byteSlots.get(bytes);
+        ByteBuffer buffer = slot != null ? slot.buffers.poll() : null;
+        if (buffer != null) {
+            slot.size.decrementAndGet();
+        } else {
+            buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer obtained from acquireBytes
+     */
+    public void release(ByteBuffer buffer) {
+        byteSlots.computeIfAbsent(buffer.capacity(), k -> new Slot<>()).offer(buffer, maxIdlePerSize);
+    }
+
+    /**
+     * Drop all idle buffers
+     */
+    public void clear() {
+        slots.clear();
+        byteSlots.clear();
+    }
+
+    private static final class Slot<T> {
+        final Queue<T> buffers = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+
+        void offer(T buffer, int maxIdle) {
+            if (size.incrementAndGet() > maxIdle) {
+                size.decrementAndGet();
+                return;
+            }
+            buffers.offer(buffer);
+        }
+    }
+}
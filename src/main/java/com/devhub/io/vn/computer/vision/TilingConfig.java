@@ -0,0 +1,144 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tile geometry and scheduling for tiled detection of large images.
+ *
+ * The image is cut into overlapping tiles of tileWidth x tileHeight source pixels, each
+ * letterboxed to the model input at its own resolution, so small objects keep their
+ * pixels instead of being scaled away with the whole image. Objects smaller than the
+ * overlap are seen whole by at least one tile.
+ */
+public class TilingConfig {
+
+    private int tileWidth = 640;
+    private int tileHeight = 640;
+    private float overlap = 0.2f;
+    private boolean fullImagePass = true;
+    private int batchSize = 1;
+    private int parallelism = 0;
+    private Executor executor;
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public void setTileWidth(int tileWidth) {
+        if (tileWidth < 1) {
+            throw new IllegalArgumentException("tileWidth must be >= 1: " + tileWidth);
+        }
+        this.tileWidth = tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public void setTileHeight(int tileHeight) {
+        if (tileHeight < 1) {
+            throw new IllegalArgumentException("tileHeight must be >= 1: " + tileHeight);
+        }
+        this.tileHeight = tileHeight;
+    }
+
+    public void setTileSize(int tileWidth, int tileHeight) {
+        setTileWidth(tileWidth);
+        setTileHeight(tileHeight);
+    }
+
+    public float getOverlap() {
+        return overlap;
+    }
+
+    /**
+     * Fraction of a tile shared with its neighbour, in [0, 1)
+     */
+    public void setOverlap(float overlap) {
+        if (!(overlap >= 0 && overlap < 1)) {
+            throw new IllegalArgumentException("overlap must be in [0, 1): " + overlap);
+        }
+        this.overlap = overlap;
+    }
+
+    public boolean isFullImagePass() {
+        return fullImagePass;
+    }
+
+    /**
+     * Also detect on the whole image scaled to the model input (default on), for objects larger than a tile
+     */
+    public void setFullImagePass(boolean fullImagePass) {
+        this.fullImagePass = fullImagePass;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Tiles per inference call; above 1 needs a model with a dynamic batch dimension
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Tile batches run concurrently, counting the calling thread; 0 uses one per pooled session
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism must be >= 0: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public Executor getExecutor() {
+        return executor != null ? executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Runs the extra workers; null uses the common fork/join pool
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Whether an image is large enough to be tiled
+     */
+    public boolean shouldTile(int width, int height) {
+        return width > tileWidth || height > tileHeight;
+    }
+
+    /**
+     * Tile start offsets along one axis. The last tile is shifted back to end at the
+     * image edge, so every tile has the full tile length.
+     */
+    static int[] tileOrigins(int length, int tileLength, float overlap) {
+        if (length <= tileLength) {
+            return new int[]{0};
+        }
+        int step = Math.max(1, Math.round(tileLength * (1 - overlap)));
+        int count = (length - tileLength + step - 1) / step + 1;
+        int[] origins = new int[count];
+        for (int i = 0; i < count; i++) {
+            origins[i] = Math.min(i * step, length - tileLength);
+        }
+        return origins;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TilingConfig[tile=%dx%d, overlap=%.2f, fullImage=%b, batch=%d, parallelism=%d]",
+                tileWidth, tileHeight, overlap, fullImagePass, batchSize, parallelism);
+    }
+}
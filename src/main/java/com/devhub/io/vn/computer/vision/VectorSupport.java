@@ -0,0 +1,25 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Picks the vectorized implementations of the hot loops when the runtime has them.
+ *
+ * This is the Java 8 version, which always uses the scalar loops. The multi-release
+ * jar carries a Java 17 version under META-INF/versions/17 that switches to the
+ * Vector API when the JVM was started with --add-modules jdk.incubator.vector.
+ */
+final class VectorSupport {
+
+    private VectorSupport() {
+    }
+
+    static ScoreDecoder scoreDecoder() {
+        return new ScoreDecoder();
+    }
+
+    /**
+     * Implementation in use, for the startup log
+     */
+    static String describe() {
+        return "scalar";
+    }
+}
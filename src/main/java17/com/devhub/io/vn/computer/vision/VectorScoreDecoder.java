@@ -0,0 +1,56 @@
+package com.devhub.io.vn.computer.vision;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ScoreDecoder with the max / argmax fold and the threshold scan on the preferred vector
+ * species; the scalar loops finish the tail of a block shorter than a vector
+ */
+final class VectorScoreDecoder extends ScoreDecoder {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, FLOATS.vectorShape());
+
+    @Override
+    void accumulate(int classId, float threshold, int from, int to) {
+        IntVector id = IntVector.broadcast(INTS, classId);
+        int bound = from + FLOATS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector scores = FloatVector.fromArray(FLOATS, row, i);
+            FloatVector max = FloatVector.fromArray(FLOATS, maxScores, i);
+            VectorMask<Float> better = scores.compare(VectorOperators.GT, max);
+            if (threshold != Float.NEGATIVE_INFINITY) {
+                better = better.and(scores.compare(VectorOperators.GT, threshold));
+            }
+            if (better.anyTrue()) {
+                max.blend(scores, better).intoArray(maxScores, i);
+                IntVector.fromArray(INTS, classIds, i).blend(id, better.cast(INTS)).intoArray(classIds, i);
+            }
+        }
+        super.accumulate(classId, threshold, i, to);
+    }
+
+    @Override
+    int select(int from, int to, float threshold, int passedCount) {
+        int bound = from + FLOATS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += FLOATS.length()) {
+            long bits = FloatVector.fromArray(FLOATS, maxScores, i).compare(VectorOperators.GT, threshold).toLong();
+            while (bits != 0) {
+                passed[passedCount++] = i + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return super.select(i, to, threshold, passedCount);
+    }
+
+    @Override
+    public String toString() {
+        return FLOATS.length() + "x" + FLOATS.elementType().getSimpleName();
+    }
+}
@@ -0,0 +1,37 @@
+package com.devhub.io.vn.computer.vision;
+
+/**
+ * Picks the vectorized implementations of the hot loops when the runtime has them.
+ *
+ * Java 17 version from the multi-release jar: the Vector API is still an incubator module,
+ * so it is only used when the JVM resolved jdk.incubator.vector (--add-modules); otherwise,
+ * or if the vector classes fail to load, the scalar loops are used as on Java 8.
+ */
+final class VectorSupport {
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private VectorSupport() {
+    }
+
+    static ScoreDecoder scoreDecoder() {
+        if (AVAILABLE) {
+            try {
+                // Loaded by name so this class links without the incubator module
+                return (ScoreDecoder) Class.forName("com.devhub.io.vn.computer.vision.VectorScoreDecoder")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScoreDecoder();
+            }
+        }
+        return new ScoreDecoder();
+    }
+
+    /**
+     * Implementation in use, for the startup log
+     */
+    static String describe() {
+        ScoreDecoder decoder = scoreDecoder();
+        return decoder instanceof VectorScoreDecoder ? "vector " + decoder : "scalar";
+    }
+}
@@ -0,0 +1,170 @@
+package com.devhub.io.vn.computer.vision;
+
+import static com.devhub.io.vn.computer.vision.ComputerVisionAbstractConcurrencyTest.describe;
+import static com.devhub.io.vn.computer.vision.ComputerVisionAbstractConcurrencyTest.image;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ai.onnxruntime.OrtException;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.Detection;
+
+/**
+ * detectBatch must give the detections of per-image detect, in as few inferences as the input shapes allow
+ */
+public class ComputerVisionAbstractBatchTest {
+
+    private static final int NUM_CLASSES = 80;
+
+    private static File model;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void writeModel() throws Exception {
+        model = TinyYoloModel.write(NUM_CLASSES);
+    }
+
+    @AfterClass
+    public static void deleteModel() {
+        model.delete();
+    }
+
+    @Test
+    public void detectBatchMatchesDetect() throws Exception {
+        try (CountingDetector detector = new CountingDetector(model)) {
+            assertBatchMatchesDetect(detector);
+        }
+    }
+
+    @Test
+    public void detectBatchMatchesDetectWithShapeBuckets() throws Exception {
+        try (CountingDetector detector = new CountingDetector(model)) {
+            detector.setShapeBuckets(ShapeBuckets.standard());
+            assertBatchMatchesDetect(detector);
+        }
+    }
+
+    @Test
+    public void mixedShapesRunOncePerInputShape() throws Exception {
+        try (CountingDetector detector = new CountingDetector(model)) {
+            detector.inferences.set(0);
+            detector.detectBatch(Arrays.asList(images()));
+            // 640x480 and 800x600 share an input shape; the other three differ
+            assertEquals(4, detector.inferences.get());
+        }
+    }
+
+    @Test
+    public void mixedShapesRunOnceWithOneShapeBucket() throws Exception {
+        try (CountingDetector detector = new CountingDetector(model)) {
+            detector.setShapeBuckets(new ShapeBuckets(new int[]{640, 640}));
+            detector.inferences.set(0);
+            List<Detection[]> results = detector.detectBatch(Arrays.asList(images()));
+            assertEquals(images().length, results.size());
+            assertEquals(1, detector.inferences.get());
+        }
+    }
+
+    @Test
+    public void detectBatchOfFilesMatchesDetect() throws Exception {
+        try (CountingDetector detector = new CountingDetector(model)) {
+            // Large enough that subsampled decoding reads fewer pixels
+            BufferedImage[] images = {
+                    image(1920, 1080, BufferedImage.TYPE_3BYTE_BGR, 21),
+                    image(1600, 1600, BufferedImage.TYPE_3BYTE_BGR, 22)
+            };
+            String[] paths = new String[images.length];
+            String[] expected = new String[images.length];
+            for (int i = 0; i < images.length; i++) {
+                File file = folder.newFile("image" + i + ".png");
+                ImageIO.write(images[i], "png", file);
+                paths[i] = file.getPath();
+                expected[i] = describe(detector.detect(paths[i]));
+                assertFalse("image " + i + " has no detections", expected[i].isEmpty());
+            }
+
+            List<Detection[]> results = detector.detectBatch(paths);
+            assertEquals(images.length, results.size());
+            for (int i = 0; i < images.length; i++) {
+                assertEquals("image " + i, expected[i], describe(results.get(i)));
+            }
+        }
+    }
+
+    private static void assertBatchMatchesDetect(CountingDetector detector) {
+        BufferedImage[] images = images();
+        String[] expected = new String[images.length];
+        for (int i = 0; i < images.length; i++) {
+            expected[i] = describe(detector.detect(images[i]));
+            assertFalse("image " + i + " has no detections", expected[i].isEmpty());
+        }
+
+        List<Detection[]> results = detector.detectBatch(Arrays.asList(images));
+        assertEquals(images.length, results.size());
+        for (int i = 0; i < images.length; i++) {
+            assertEquals("image " + i, expected[i], describe(results.get(i)));
+        }
+    }
+
+    /**
+     * Mixed aspect ratios and raster types
+     */
+    private static BufferedImage[] images() {
+        return new BufferedImage[]{
+                image(640, 480, BufferedImage.TYPE_3BYTE_BGR, 11),
+                image(480, 640, BufferedImage.TYPE_INT_RGB, 12),
+                image(800, 600, BufferedImage.TYPE_INT_ARGB, 13),
+                image(320, 320, BufferedImage.TYPE_3BYTE_BGR, 14),
+                image(960, 320, BufferedImage.TYPE_INT_RGB, 15)
+        };
+    }
+
+    /**
+     * Counts batched inferences
+     */
+    private static final class CountingDetector extends ComputerVisionAbstract implements AutoCloseable {
+
+        final AtomicInteger inferences = new AtomicInteger();
+
+        CountingDetector(File model) {
+            super(model.getPath());
+        }
+
+        @Override
+        protected void configureModel() {
+            // Defaults of ComputerVisionAbstract
+        }
+
+        @Override
+        protected String[] getClassNames() {
+            String[] classNames = new String[NUM_CLASSES];
+            for (int i = 0; i < NUM_CLASSES; i++) {
+                classNames[i] = "class" + i;
+            }
+            return classNames;
+        }
+
+        @Override
+        protected void runInference(InputTensor input, InferenceContext context, DetectionBatch[] results)
+                throws OrtException {
+            inferences.incrementAndGet();
+            super.runInference(input, context, results);
+        }
+    }
+}
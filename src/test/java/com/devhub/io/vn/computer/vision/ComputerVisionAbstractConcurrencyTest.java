@@ -0,0 +1,238 @@
+package com.devhub.io.vn.computer.vision;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.devhub.io.vn.computer.vision.ComputerVisionAbstract.Detection;
+
+/**
+ * Concurrent detect calls on one shared detector must give exactly the single-threaded results
+ */
+public class ComputerVisionAbstractConcurrencyTest {
+
+    private static final int NUM_CLASSES = 80;
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 12;
+
+    private static File model;
+
+    @BeforeClass
+    public static void writeModel() throws Exception {
+        model = TinyYoloModel.write(NUM_CLASSES);
+    }
+
+    @AfterClass
+    public static void deleteModel() {
+        model.delete();
+    }
+
+    @Test
+    public void concurrentDetectMatchesSingleThreaded() throws Exception {
+        try (TestDetector detector = new TestDetector(model, 2)) {
+            BufferedImage[] images = images();
+            String[] expected = new String[images.length];
+            for (int i = 0; i < images.length; i++) {
+                expected[i] = describe(detector.detect(images[i]));
+                assertFalse("image " + i + " has no detections", expected[i].isEmpty());
+            }
+
+            List<String[]> results = runConcurrently(thread -> {
+                String[] actual = new String[ITERATIONS];
+                for (int n = 0; n < ITERATIONS; n++) {
+                    actual[n] = describe(detector.detect(images[(thread + n) % images.length]));
+                }
+                return actual;
+            });
+
+            for (int thread = 0; thread < THREADS; thread++) {
+                for (int n = 0; n < ITERATIONS; n++) {
+                    assertEquals("thread " + thread + " call " + n,
+                            expected[(thread + n) % images.length], results.get(thread)[n]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void concurrentDetectIntoReusedBatchesMatchesSingleThreaded() throws Exception {
+        try (TestDetector detector = new TestDetector(model, 3)) {
+            BufferedImage[] images = images();
+            String[] expected = new String[images.length];
+            for (int i = 0; i < images.length; i++) {
+                expected[i] = describe(detector.detect(images[i], new DetectionBatch()).toDetections());
+            }
+
+            List<String[]> results = runConcurrently(thread -> {
+                DetectionBatch batch = new DetectionBatch();
+                String[] actual = new String[ITERATIONS];
+                for (int n = 0; n < ITERATIONS; n++) {
+                    actual[n] = describe(detector.detect(images[(thread + n) % images.length], batch).toDetections());
+                }
+                return actual;
+            });
+
+            for (int thread = 0; thread < THREADS; thread++) {
+                for (int n = 0; n < ITERATIONS; n++) {
+                    assertEquals("thread " + thread + " call " + n,
+                            expected[(thread + n) % images.length], results.get(thread)[n]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void thresholdChangeDuringDetectGivesOneOfTheSnapshots() throws Exception {
+        try (TestDetector detector = new TestDetector(model, 2)) {
+            BufferedImage image = images()[0];
+            // No cap, so the threshold alone decides which detections are returned
+            detector.setMaxDetections(0);
+            detector.setConfThreshold(0.25f);
+            String low = describe(detector.detect(image));
+            detector.setConfThreshold(0.9f);
+            String high = describe(detector.detect(image));
+            assertFalse("thresholds give the same detections", low.equals(high));
+
+            List<String[]> results = runConcurrently(thread -> {
+                String[] actual = new String[ITERATIONS];
+                for (int n = 0; n < ITERATIONS; n++) {
+                    if (thread == 0) {
+                        detector.setConfThreshold(n % 2 == 0 ? 0.25f : 0.9f);
+                    }
+                    actual[n] = describe(detector.detect(image));
+                }
+                return actual;
+            });
+
+            for (String[] actual : results) {
+                for (String detections : actual) {
+                    assertTrue(detections, detections.equals(low) || detections.equals(high));
+                }
+            }
+        }
+    }
+
+    /**
+     * Run task(thread) on THREADS threads released together; results in thread order
+     */
+    private static List<String[]> runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                Callable<String[]> callable = () -> {
+                    start.await();
+                    return task.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<String[]> results = new ArrayList<>();
+            for (Future<String[]> future : futures) {
+                results.add(future.get(5, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        String[] run(int thread) throws Exception;
+    }
+
+    /**
+     * Exact text of the detections; float bits, so any difference fails
+     */
+    static String describe(Detection[] detections) {
+        StringBuilder sb = new StringBuilder();
+        for (Detection d : detections) {
+            sb.append(Float.floatToIntBits(d.x1)).append(',')
+                    .append(Float.floatToIntBits(d.y1)).append(',')
+                    .append(Float.floatToIntBits(d.x2)).append(',')
+                    .append(Float.floatToIntBits(d.y2)).append(',')
+                    .append(Float.floatToIntBits(d.confidence)).append(',')
+                    .append(d.classId).append(',')
+                    .append(d.className).append(';');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Noisy gradients of different sizes and raster types, so calls differ in letterbox and content
+     */
+    private static BufferedImage[] images() {
+        int[][] sizes = {{640, 480}, {320, 320}, {800, 600}, {480, 640}};
+        int[] types = {BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR};
+        BufferedImage[] images = new BufferedImage[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            images[i] = image(sizes[i][0], sizes[i][1], types[i], 7 + i);
+        }
+        return images;
+    }
+
+    /**
+     * Noisy gradient; the same arguments always give the same pixels
+     */
+    static BufferedImage image(int width, int height, int type, long seed) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(seed);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(32)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(32)) & 0xFF;
+                int b = ((x ^ y) + random.nextInt(32)) & 0xFF;
+                row[x] = 0xFF000000 | r << 16 | g << 8 | b;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    private static final class TestDetector extends ComputerVisionAbstract implements AutoCloseable {
+
+        TestDetector(File model, int poolSize) {
+            super(model.getPath(), poolConfig(poolSize));
+        }
+
+        private static SessionPoolConfig poolConfig(int poolSize) {
+            SessionPoolConfig config = new SessionPoolConfig();
+            config.setPoolSize(poolSize);
+            return config;
+        }
+
+        @Override
+        protected void configureModel() {
+            // Defaults of ComputerVisionAbstract
+        }
+
+        @Override
+        protected String[] getClassNames() {
+            String[] classNames = new String[NUM_CLASSES];
+            for (int i = 0; i < NUM_CLASSES; i++) {
+                classNames[i] = "class" + i;
+            }
+            return classNames;
+        }
+    }
+}
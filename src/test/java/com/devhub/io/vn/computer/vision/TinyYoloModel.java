@@ -0,0 +1,244 @@
+package com.devhub.io.vn.computer.vision;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Writes a tiny YOLOv8-shaped ONNX model so tests and benchmarks need neither a bundled model nor network.
+ * Shipped to the benchmarks module in the test-jar.
+ *
+ * images [batch, 3, height, width] -> 8x8 average pool -> 1x1 conv -> sigmoid -> scale
+ * -> output0 [batch, 4 + classes, height / 8 * width / 8]. Weights come from a fixed seed,
+ * so the same class count always gives the same model and the same detections.
+ *
+ * The UINT8 variant takes raw pixels and dequantizes them by 1/255 in the graph, the way
+ * quantized exports do; the FLOAT16 variant takes and returns half-precision tensors.
+ * Both compute the same detections as FLOAT32 up to input rounding.
+ */
+public final class TinyYoloModel {
+
+    /**
+     * Input and output element types of the generated model
+     */
+    public enum Precision {
+        FLOAT32,
+        UINT8,
+        FLOAT16
+    }
+
+    // ONNX TensorProto.DataType
+    private static final int FLOAT = 1;
+    private static final int UINT8 = 2;
+    private static final int INT64 = 7;
+    private static final int FLOAT16 = 10;
+
+    // AttributeProto.AttributeType
+    private static final int ATTRIBUTE_INT = 2;
+    private static final int ATTRIBUTE_INTS = 7;
+
+    private static final int IR_VERSION = 8;
+    private static final int OPSET_VERSION = 13;
+
+    private TinyYoloModel() {
+    }
+
+    /**
+     * Write the model to a temporary file deleted on exit
+     */
+    public static File write(int numClasses) throws IOException {
+        return write(numClasses, Precision.FLOAT32);
+    }
+
+    public static File write(int numClasses, Precision precision) throws IOException {
+        File file = File.createTempFile("tiny-yolo-" + numClasses + "-" + precision.name().toLowerCase() + "-", ".onnx");
+        file.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(build(numClasses, precision));
+        }
+        return file;
+    }
+
+    /**
+     * Serialized float32 ModelProto with numClasses class scores per anchor
+     */
+    public static byte[] build(int numClasses) {
+        return build(numClasses, Precision.FLOAT32);
+    }
+
+    public static byte[] build(int numClasses, Precision precision) {
+        if (numClasses < 1) {
+            throw new IllegalArgumentException("numClasses must be at least 1");
+        }
+        int outputs = 4 + numClasses;
+        Random random = new Random(42);
+
+        float[] weights = new float[outputs * 3];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) random.nextGaussian() * 2f;
+        }
+        // Class logits biased down so only part of the anchors pass the default threshold
+        float[] bias = new float[outputs];
+        for (int i = 0; i < outputs; i++) {
+            bias[i] = (float) random.nextGaussian() - (i >= 4 ? 2f : 0f);
+        }
+        // Sigmoid output scaled to pixel centers (0-640) and sizes (0-96); scores stay in 0-1
+        float[] scale = new float[outputs];
+        for (int i = 0; i < outputs; i++) {
+            scale[i] = i < 2 ? 640f : i < 4 ? 96f : 1f;
+        }
+
+        Proto graph = new Proto();
+        String input = "images";
+        String output = "output0";
+        int inputType = FLOAT;
+        int outputType = FLOAT;
+        if (precision == Precision.UINT8) {
+            graph.message(1, node("DequantizeLinear", new String[]{"images", "x_scale", "x_zero_point"}, "images_f"));
+            input = "images_f";
+            inputType = UINT8;
+        } else if (precision == Precision.FLOAT16) {
+            graph.message(1, node("Cast", new String[]{"images"}, "images_f", integer("to", FLOAT)));
+            input = "images_f";
+            output = "output_f";
+            inputType = FLOAT16;
+            outputType = FLOAT16;
+        }
+        graph.message(1, node("AveragePool", new String[]{input}, "pooled",
+                ints("kernel_shape", 8, 8), ints("strides", 8, 8)));
+        graph.message(1, node("Conv", new String[]{"pooled", "W", "B"}, "conv"));
+        graph.message(1, node("Sigmoid", new String[]{"conv"}, "sig"));
+        graph.message(1, node("Mul", new String[]{"sig", "S"}, "scaled"));
+        graph.message(1, node("Reshape", new String[]{"scaled", "shape"}, output));
+        if (precision == Precision.FLOAT16) {
+            graph.message(1, node("Cast", new String[]{output}, "output0", integer("to", FLOAT16)));
+        }
+        graph.string(2, "tiny_yolo");
+        graph.message(5, floatTensor("W", new long[]{outputs, 3, 1, 1}, weights));
+        graph.message(5, floatTensor("B", new long[]{outputs}, bias));
+        graph.message(5, floatTensor("S", new long[]{1, outputs, 1, 1}, scale));
+        graph.message(5, int64Tensor("shape", new long[]{3}, new long[]{0, outputs, -1}));
+        if (precision == Precision.UINT8) {
+            graph.message(5, floatTensor("x_scale", new long[0], new float[]{1f / 255f}));
+            graph.message(5, tensor("x_zero_point", new long[0], UINT8, new byte[]{0}));
+        }
+        graph.message(11, valueInfo("images", inputType, "batch", 3, "height", "width"));
+        graph.message(12, valueInfo("output0", outputType, "batch", outputs, "anchors"));
+
+        Proto opset = new Proto().string(1, "").varint(2, OPSET_VERSION);
+        return new Proto()
+                .varint(1, IR_VERSION)
+                .string(2, "devhub-tests")
+                .message(7, graph)
+                .message(8, opset)
+                .toByteArray();
+    }
+
+    private static Proto node(String op, String[] inputs, String output, Proto... attributes) {
+        Proto node = new Proto();
+        for (String input : inputs) {
+            node.string(1, input);
+        }
+        node.string(2, output).string(3, op + "_" + output).string(4, op);
+        for (Proto attribute : attributes) {
+            node.message(5, attribute);
+        }
+        return node;
+    }
+
+    private static Proto integer(String name, long value) {
+        return new Proto().string(1, name).varint(3, value).varint(20, ATTRIBUTE_INT);
+    }
+
+    private static Proto ints(String name, long... values) {
+        Proto attribute = new Proto().string(1, name).varint(20, ATTRIBUTE_INTS);
+        for (long value : values) {
+            attribute.varint(8, value);
+        }
+        return attribute;
+    }
+
+    private static Proto floatTensor(String name, long[] dims, float[] data) {
+        ByteBuffer raw = ByteBuffer.allocate(data.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : data) {
+            raw.putFloat(value);
+        }
+        return tensor(name, dims, FLOAT, raw.array());
+    }
+
+    private static Proto int64Tensor(String name, long[] dims, long[] data) {
+        ByteBuffer raw = ByteBuffer.allocate(data.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (long value : data) {
+            raw.putLong(value);
+        }
+        return tensor(name, dims, INT64, raw.array());
+    }
+
+    private static Proto tensor(String name, long[] dims, int dataType, byte[] raw) {
+        Proto tensor = new Proto();
+        for (long dim : dims) {
+            tensor.varint(1, dim);
+        }
+        return tensor.varint(2, dataType).string(8, name).bytes(9, raw);
+    }
+
+    /**
+     * Tensor ValueInfoProto; String dims are symbolic, Number dims fixed
+     */
+    private static Proto valueInfo(String name, int elementType, Object... dims) {
+        Proto shape = new Proto();
+        for (Object dim : dims) {
+            shape.message(1, dim instanceof String
+                    ? new Proto().string(2, (String) dim)
+                    : new Proto().varint(1, ((Number) dim).longValue()));
+        }
+        Proto tensorType = new Proto().varint(1, elementType).message(2, shape);
+        return new Proto().string(1, name).message(2, new Proto().message(1, tensorType));
+    }
+
+    /**
+     * Minimal protobuf writer: varint, length-delimited and nested message fields
+     */
+    private static final class Proto {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto varint(int field, long value) {
+            writeVarint(((long) field << 3));
+            writeVarint(value);
+            return this;
+        }
+
+        Proto bytes(int field, byte[] value) {
+            writeVarint(((long) field << 3) | 2);
+            writeVarint(value.length);
+            out.write(value, 0, value.length);
+            return this;
+        }
+
+        Proto string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Proto message(int field, Proto value) {
+            return bytes(field, value.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}